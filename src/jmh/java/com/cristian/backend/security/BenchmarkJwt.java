@@ -0,0 +1,29 @@
+package com.cristian.backend.security;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Builds the JWT components the same way the application context does, without starting it.
+ */
+final class BenchmarkJwt {
+
+    static final String SECRET = "U1YzVWdmVlhOcEo4dkd5VGlxWjhsOWcyRWpFZlIzUWxTdFc0TlpoMWg1dVEyTjBXVjRJSUI4aFNVQT09";
+
+    private BenchmarkJwt() {
+    }
+
+    /**
+     * @param expirationMillis token lifetime, negative to mint already expired tokens
+     * @param cacheSize        verified-token cache size
+     */
+    static JwtService jwtService(long expirationMillis, long cacheSize) {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, null, List.of(), Duration.ofDays(1));
+        JwtService jwtService = new JwtService(keyRing, new TokenCache<>(cacheSize, VerifiedToken::expiration));
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", expirationMillis);
+        ReflectionTestUtils.setField(jwtService, "verificationExpiration", 86400000L);
+        return jwtService;
+    }
+}
@@ -0,0 +1,74 @@
+package com.cristian.backend.security;
+
+import com.cristian.backend.repository.RevokedTokenRepository;
+import com.cristian.backend.repository.UserRepository;
+import com.cristian.backend.service.ReadYourWritesGuard;
+import com.cristian.backend.service.TokenRevocationService;
+import com.cristian.backend.service.UserCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Throughput of {@link JwtCookieAuthenticationFilter} on a request carrying the token cookie.
+ * <p>
+ * {@code cacheSize = 0} effectively disables the cache, so each request pays the signature check; otherwise the token is
+ * served from the verified-token cache after the first request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtCookieAuthenticationFilterBenchmark {
+
+    @Param({"0", "10000"})
+    public long cacheSize;
+
+    private JwtCookieAuthenticationFilter filter;
+    private Cookie cookie;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = BenchmarkJwt.jwtService(3600000L, cacheSize);
+        TokenRevocationService revocationService =
+                new TokenRevocationService(mock(RevokedTokenRepository.class), 1000);
+        filter = new JwtCookieAuthenticationFilter(
+                new JwtServiceJwtDecoder(jwtService, revocationService),
+                new TokenAuthenticationConverter(mock(UserRepository.class),
+                        new UserCache(10000, 300000, new SimpleMeterRegistry()), new ReadYourWritesGuard(5000))
+        );
+        cookie = new Cookie("token", jwtService.generateToken("user@test.com", "USER"));
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/me");
+        request.setCookies(cookie);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
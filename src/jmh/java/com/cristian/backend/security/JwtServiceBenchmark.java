@@ -0,0 +1,77 @@
+package com.cristian.backend.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of minting and parsing JWTs.
+ * <p>
+ * The {@code parse*} benchmarks go through {@link JwtService#extractSubject(String)}, which always
+ * runs the full signature check (the {@code extractAllClaims} path); {@code verifyCached} measures
+ * the verified-token cache hit that authenticated requests actually take.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String validToken;
+    private String expiredToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkJwt.jwtService(3600000L, 10000);
+        validToken = jwtService.generateToken("user@test.com", "USER");
+        tamperedToken = validToken.substring(0, validToken.length() - 2) + "xx";
+        expiredToken = BenchmarkJwt.jwtService(-60000L, 10000).generateToken("user@test.com", "USER");
+        jwtService.verifyToken(validToken);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("user@test.com", "USER");
+    }
+
+    @Benchmark
+    public String parseValid() {
+        return jwtService.extractSubject(validToken);
+    }
+
+    @Benchmark
+    public Object parseExpired() {
+        try {
+            return jwtService.extractSubject(expiredToken);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object parseTampered() {
+        try {
+            return jwtService.extractSubject(tamperedToken);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return jwtService.verifyToken(validToken);
+    }
+}
@@ -0,0 +1,75 @@
+package com.cristian.backend.service;
+
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messages per second through {@link PooledJavaMailSender} versus a plain {@link JavaMailSenderImpl},
+ * against {@link InProcessSmtpServer} with a per-connection delay standing in for TLS + AUTH.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class SmtpTransportBenchmark {
+
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    @Param({"20"})
+    public long connectDelayMs;
+
+    private InProcessSmtpServer smtpServer;
+    private JavaMailSenderImpl mailSender;
+
+    @Setup
+    public void setUp() throws Exception {
+        smtpServer = new InProcessSmtpServer(Duration.ofMillis(connectDelayMs));
+        mailSender = pooled
+                ? new PooledJavaMailSender(4, 100, Duration.ofMinutes(1), Duration.ofSeconds(2), Duration.ofSeconds(30))
+                : new JavaMailSenderImpl();
+        mailSender.setHost(smtpServer.getHost());
+        mailSender.setPort(smtpServer.getPort());
+        mailSender.setDefaultEncoding("UTF-8");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (mailSender instanceof PooledJavaMailSender pool) {
+            pool.destroy();
+        }
+        smtpServer.close();
+    }
+
+    @Benchmark
+    public MimeMessage send() throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("hello@demomailtrap.co");
+        helper.setTo("user@test.com");
+        helper.setSubject("Verify Your Account - Authentication API");
+        helper.setText("<p>Hello</p>", true);
+        mailSender.send(message);
+        return message;
+    }
+}
@@ -0,0 +1,35 @@
+package com.cristian.backend.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * The database behind the DataSource, read once at startup from the JDBC metadata.
+ * Spring Boot infers the Hibernate dialect the same way, so {@code spring.jpa.database-platform}
+ * is usually not set and can't tell which SQL dialect is available.
+ */
+@Component
+public class DatabasePlatform {
+
+    private final DatabaseDriver driver;
+
+    @Autowired
+    public DatabasePlatform(DataSource dataSource) throws MetaDataAccessException {
+        this(DatabaseDriver.fromProductName(
+                JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName)));
+    }
+
+    public DatabasePlatform(DatabaseDriver driver) {
+        this.driver = driver;
+    }
+
+    public boolean isPostgreSQL() {
+        return driver == DatabaseDriver.POSTGRESQL;
+    }
+}
@@ -0,0 +1,27 @@
+package com.cristian.backend.config;
+
+import com.cristian.backend.security.JwtKeyRing;
+import com.cristian.backend.security.JwtKeyRingProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(JwtKeyRingProperties.class)
+public class JwtKeyRingConfig {
+
+    @Bean
+    public JwtKeyRing jwtKeyRing(
+            JwtKeyRingProperties properties,
+            @Value("${jwt.secret:}") String secret,
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.verification.expiration}") long verificationExpiration
+    ) {
+        // Retired keys must outlive the longest token they may have signed
+        Duration retention = Duration.ofMillis(Math.max(jwtExpiration, verificationExpiration));
+        return new JwtKeyRing(secret, properties.signingKid(), properties.keys(), retention);
+    }
+}
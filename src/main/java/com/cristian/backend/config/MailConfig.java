@@ -0,0 +1,103 @@
+package com.cristian.backend.config;
+
+import com.cristian.backend.service.PooledJavaMailSender;
+import com.cristian.backend.service.SmtpRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Properties;
+
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class MailConfig {
+
+    @Value("${email.smtp-pool.max-connections:4}")
+    private int maxConnections;
+
+    @Value("${email.smtp-pool.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${email.smtp-pool.max-idle-ms:60000}")
+    private long maxIdleMs;
+
+    @Value("${email.smtp-pool.validate-after-idle-ms:2000}")
+    private long validateAfterIdleMs;
+
+    @Value("${email.smtp-pool.borrow-timeout-ms:10000}")
+    private long borrowTimeoutMs;
+
+    @Value("${email.rate-limit.max-wait-ms:5000}")
+    private long rateLimitMaxWaitMs;
+
+    @Value("${email.rate-limit.provider-backoff-ms:60000}")
+    private long providerBackoffMs;
+
+    /**
+     * Replaces the auto-configured sender, configured from the same spring.mail.* properties
+     */
+    @Bean
+    public JavaMailSender mailSender(MailProperties properties, MeterRegistry meterRegistry) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(
+                maxConnections,
+                maxMessagesPerConnection,
+                Duration.ofMillis(maxIdleMs),
+                Duration.ofMillis(validateAfterIdleMs),
+                Duration.ofMillis(borrowTimeoutMs)
+        );
+        sender.setHost(properties.getHost());
+        if (properties.getPort() != null) {
+            sender.setPort(properties.getPort());
+        }
+        sender.setUsername(properties.getUsername());
+        sender.setPassword(properties.getPassword());
+        sender.setProtocol(properties.getProtocol());
+        sender.setDefaultEncoding(properties.getDefaultEncoding() != null
+                ? properties.getDefaultEncoding().name()
+                : StandardCharsets.UTF_8.name());
+        Properties javaMailProperties = new Properties();
+        javaMailProperties.putAll(properties.getProperties());
+        sender.setJavaMailProperties(javaMailProperties);
+
+        Gauge.builder("email.smtp.pool.connections", sender, PooledJavaMailSender::getActiveConnections)
+                .tag("state", "active")
+                .register(meterRegistry);
+        Gauge.builder("email.smtp.pool.connections", sender, PooledJavaMailSender::getIdleConnections)
+                .tag("state", "idle")
+                .register(meterRegistry);
+        FunctionCounter.builder("email.smtp.pool.opened", sender, PooledJavaMailSender::getOpenedConnections)
+                .description("SMTP connections opened (each one is a TCP + TLS + AUTH handshake)")
+                .register(meterRegistry);
+        return sender;
+    }
+
+    /**
+     * Send rate for the configured SMTP provider. email.rate-limit.{provider}.* overrides the
+     * email.rate-limit.* defaults, e.g. email.rate-limit.gmail.permits-per-second
+     */
+    @Bean
+    public SmtpRateLimiter smtpRateLimiter(MailProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        String provider = SmtpRateLimiter.providerOf(properties.getHost());
+        double permitsPerSecond = environment.getProperty("email.rate-limit." + provider + ".permits-per-second", Double.class,
+                environment.getProperty("email.rate-limit.permits-per-second", Double.class, 5.0));
+        int burst = environment.getProperty("email.rate-limit." + provider + ".burst", Integer.class,
+                environment.getProperty("email.rate-limit.burst", Integer.class, 10));
+        return new SmtpRateLimiter(
+                provider,
+                permitsPerSecond,
+                burst,
+                Duration.ofMillis(rateLimitMaxWaitMs),
+                Duration.ofMillis(providerBackoffMs),
+                meterRegistry
+        );
+    }
+}
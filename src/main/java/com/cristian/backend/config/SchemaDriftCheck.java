@@ -0,0 +1,113 @@
+package com.cristian.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fails startup when the live schema drifted from the migrations.
+ * <p>
+ * Hibernate's {@code ddl-auto=validate} checks tables and columns; this checks the rest: that the
+ * applied migrations match the files in db/migration, and that the indexes the repositories'
+ * queries rely on exist (an index dropped by hand only shows up as slow queries otherwise).
+ */
+@Component
+@ConditionalOnProperty(name = {"spring.flyway.enabled", "schema.drift-check.enabled"}, matchIfMissing = true)
+@DependsOn("flywayInitializer")
+@Slf4j
+public class SchemaDriftCheck {
+
+    // Table -> indexes (and unique constraints) that must exist
+    static final Map<String, List<String>> REQUIRED_INDEXES = Map.of(
+            "users", List.of(
+                    "uk_users_username",
+                    "uk_users_email",
+                    "idx_users_created_at_id",
+                    "idx_users_role_created_at_id",
+                    "idx_users_provider_created_at_id",
+                    "idx_users_enabled_created_at_id"),
+            "verification_tokens", List.of(
+                    "idx_verification_tokens_user_id",
+                    "idx_verification_tokens_expires_at"),
+            "refresh_tokens", List.of(
+                    "uk_refresh_tokens_token_hash",
+                    "idx_refresh_tokens_family_id",
+                    "idx_refresh_tokens_expires_at"),
+            "revoked_tokens", List.of(
+                    "idx_revoked_tokens_expires_at",
+                    "idx_revoked_tokens_revoked_at"),
+            "email_outbox", List.of(
+                    "idx_email_outbox_status_next_attempt")
+    );
+
+    private final DataSource dataSource;
+    private final Flyway flyway;
+
+    public SchemaDriftCheck(DataSource dataSource, Flyway flyway) {
+        this.dataSource = dataSource;
+        this.flyway = flyway;
+    }
+
+    @PostConstruct
+    public void check() throws SQLException {
+        // Applied migrations whose file changed, or migrations not applied, fail here
+        flyway.validate();
+
+        List<String> missing;
+        try (Connection connection = dataSource.getConnection()) {
+            missing = missingIndexes(connection);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Schema drift detected, missing indexes: " + missing
+                    + ". Restore them with a new migration in db/migration");
+        }
+        log.info("Schema matches migration version {}", flyway.info().current() != null
+                ? flyway.info().current().getVersion() : "none");
+    }
+
+    static List<String> missingIndexes(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, List<String>> table : REQUIRED_INDEXES.entrySet()) {
+            Set<String> existing = indexes(metaData, connection.getSchema(), table.getKey());
+            for (String index : table.getValue()) {
+                if (!existing.contains(index)) {
+                    missing.add(table.getKey() + "." + index);
+                }
+            }
+        }
+        missing.sort(null);
+        return missing;
+    }
+
+    private static Set<String> indexes(DatabaseMetaData metaData, String schema, String table) throws SQLException {
+        Set<String> names = new HashSet<>();
+        // Unquoted identifiers are stored lower case by PostgreSQL and upper case by others
+        for (String name : List.of(table, table.toUpperCase(Locale.ROOT))) {
+            try (ResultSet indexes = metaData.getIndexInfo(null, schema, name, false, false)) {
+                while (indexes.next()) {
+                    String index = indexes.getString("INDEX_NAME");
+                    if (index != null) {
+                        names.add(index.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+        return names;
+    }
+}
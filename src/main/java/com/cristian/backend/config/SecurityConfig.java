@@ -1,8 +1,12 @@
 package com.cristian.backend.config;
 
+import com.cristian.backend.security.BoundedPasswordEncoder;
 import com.cristian.backend.security.JwtCookieAuthenticationFilter;
 import com.cristian.backend.security.OAuth2LoginSuccessHandler;
+import com.cristian.backend.security.TokenAuthenticationConverter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,12 +18,8 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import javax.crypto.spec.SecretKeySpec;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.time.Duration;
 
 @Configuration
 @RequiredArgsConstructor
@@ -28,29 +28,35 @@ public class SecurityConfig {
 
     private final OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler;
     private final JwtCookieAuthenticationFilter jwtCookieAuthenticationFilter;
+    private final TokenAuthenticationConverter tokenAuthenticationConverter;
 
-    @Bean
-    public JwtDecoder jwtDecoder(
-            @Value("${spring.security.oauth2.resourceserver.jwt.secret-key}") String secret
-    ) {
-        SecretKeySpec key = new SecretKeySpec(secret.getBytes(), "HmacSHA256");
-        return NimbusJwtDecoder.withSecretKey(key).build();
-    }
+    // 0 = one hashing thread per available processor
+    @Value("${auth.hashing.threads:0}")
+    private int hashingThreads;
 
-    @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        grantedAuthoritiesConverter.setAuthoritiesClaimName("role");
-        grantedAuthoritiesConverter.setAuthorityPrefix("ROLE_");
-
-        JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(grantedAuthoritiesConverter);
-        return jwtAuthenticationConverter;
-    }
+    @Value("${auth.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${auth.hashing.wait-timeout-ms:2000}")
+    private long hashingWaitTimeoutMs;
+
+    @Value("${auth.hashing.retry-after-seconds:1}")
+    private long hashingRetryAfterSeconds;
 
+    /**
+     * BCrypt on its own bounded pool so login bursts can't take every request thread
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(10),
+                threads,
+                hashingQueueCapacity,
+                Duration.ofMillis(hashingWaitTimeoutMs),
+                hashingRetryAfterSeconds,
+                meterRegistry
+        );
     }
 
     @Bean
@@ -63,7 +69,8 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/oauth2/**",
-                                "/login/**"
+                                "/login/**",
+                                "/.well-known/jwks.json"
                         ).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         // Swagger UI is public (endpoints are still protected by JWT)
@@ -85,9 +92,9 @@ public class SecurityConfig {
                 .httpBasic(AbstractHttpConfigurer::disable)
                 .formLogin(AbstractHttpConfigurer::disable)
 
-                // JWT for protected endpoints (Authorization header)
+                // JWT for protected endpoints (Authorization header), verified by JwtServiceJwtDecoder
                 .oauth2ResourceServer(oauth2 ->
-                        oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()))
+                        oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(tokenAuthenticationConverter))
                 )
 
                 // 🍪 Filter for cookie authentication (before username/password filter)
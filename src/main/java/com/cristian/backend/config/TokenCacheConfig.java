@@ -0,0 +1,26 @@
+package com.cristian.backend.config;
+
+import com.cristian.backend.security.TokenCache;
+import com.cristian.backend.security.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TokenCacheConfig {
+
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * Verified tokens, shared by the cookie filter and the bearer resource server through JwtService
+     */
+    @Bean
+    public TokenCache<VerifiedToken> verifiedTokenCache(MeterRegistry meterRegistry) {
+        TokenCache<VerifiedToken> cache = new TokenCache<>(maximumSize, VerifiedToken::expiration);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.nativeCache(), "jwt.verified");
+        return cache;
+    }
+}
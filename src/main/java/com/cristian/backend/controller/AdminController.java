@@ -1,7 +1,13 @@
 package com.cristian.backend.controller;
 
+import com.cristian.backend.dto.BatchRoleChangeRequest;
 import com.cristian.backend.dto.ChangeRoleRequest;
+import com.cristian.backend.dto.RoleChangeResult;
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.dto.UserPage;
+import com.cristian.backend.dto.UserSummary;
 import com.cristian.backend.model.User;
+import com.cristian.backend.service.UserExportService;
 import com.cristian.backend.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,12 +16,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -25,6 +39,7 @@ import java.util.Map;
 public class AdminController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
 
     @Operation(
         summary = "Change user role",
@@ -68,7 +83,7 @@ public class AdminController {
     })
     @PutMapping("/users/role")
     public ResponseEntity<Map<String, Object>> changeUserRole(@Valid @RequestBody ChangeRoleRequest request) {
-        User updatedUser;
+        UserSummary updatedUser;
 
         if (request.getUserId() != null) {
             updatedUser = userService.changeUserRoleById(request.getUserId(), request.getRole());
@@ -85,12 +100,201 @@ public class AdminController {
             "success", true,
             "message", "Role updated successfully",
             "user", Map.of(
-                "id", updatedUser.getId(),
-                "email", updatedUser.getEmail(),
-                "username", updatedUser.getUsername(),
-                "role", updatedUser.getRole().name()
+                "id", updatedUser.id(),
+                "email", updatedUser.email(),
+                "username", updatedUser.username(),
+                "role", updatedUser.role().name()
             )
         ));
     }
-}
 
+    @Operation(
+        summary = "Change the role of many users",
+        description = "Changes the role of every listed user in one transaction. Users can be given by ID, by email, or both "
+                + "(up to 10000 of each). Returns one result per distinct requested user: UPDATED, UNCHANGED (already had the role) or NOT_FOUND."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Roles changed; see the per-user results",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"success\": true, \"updated\": 1, \"unchanged\": 0, \"notFound\": 1, \"results\": [{\"id\": 1, \"email\": \"johndoe@example.com\", \"status\": \"UPDATED\"}, {\"id\": 99, \"email\": null, \"status\": \"NOT_FOUND\"}]}")
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid request (no users, too many users or missing role)",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"success\": false, \"message\": \"You must provide userIds or emails\"}")
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or expired JWT token",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden - User does not have administrator permissions",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @PostMapping("/users/roles:batch")
+    public ResponseEntity<Map<String, Object>> changeUserRoles(@Valid @RequestBody BatchRoleChangeRequest request) {
+        boolean noIds = request.getUserIds() == null || request.getUserIds().isEmpty();
+        boolean noEmails = request.getEmails() == null || request.getEmails().isEmpty();
+        if (noIds && noEmails) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "You must provide userIds or emails"
+            ));
+        }
+
+        List<RoleChangeResult> results = userService.changeUserRoles(request.getUserIds(), request.getEmails(), request.getRole());
+
+        Map<RoleChangeResult.Status, Long> counts = new EnumMap<>(RoleChangeResult.Status.class);
+        for (RoleChangeResult result : results) {
+            counts.merge(result.status(), 1L, Long::sum);
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "updated", counts.getOrDefault(RoleChangeResult.Status.UPDATED, 0L),
+            "unchanged", counts.getOrDefault(RoleChangeResult.Status.UNCHANGED, 0L),
+            "notFound", counts.getOrDefault(RoleChangeResult.Status.NOT_FOUND, 0L),
+            "results", results
+        ));
+    }
+
+    @Operation(
+        summary = "List users",
+        description = "Lists users newest first, optionally filtered by role, provider and enabled. "
+                + "Pass the returned nextCursor to get the next page; it is null on the last page. "
+                + "The total number of matching users is only computed when includeTotal=true."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Page of users",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"success\": true, \"users\": [{\"id\": 42, \"username\": \"johndoe\", \"email\": \"johndoe@example.com\", \"firstName\": \"John\", \"lastName\": \"Doe\", \"role\": \"USER\", \"provider\": \"LOCAL\", \"enabled\": true, \"createdAt\": 1767225600000}], \"nextCursor\": \"MTc2NzIyNTYwMDAwMDo0Mg\"}")
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor or filter value",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or expired JWT token",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden - User does not have administrator permissions",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/users")
+    public ResponseEntity<Map<String, Object>> listUsers(
+            @RequestParam(required = false) User.Role role,
+            @RequestParam(required = false) User.AuthProvider provider,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        UserPage page = userService.listUsers(new UserFilter(role, provider, enabled), cursor, limit, includeTotal);
+
+        // LinkedHashMap: nextCursor and total may be null
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", true);
+        body.put("users", page.users());
+        body.put("nextCursor", page.nextCursor());
+        if (page.total() != null) {
+            body.put("total", page.total());
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    @Operation(
+        summary = "Export users",
+        description = "Streams every user matching the optional filters, in id order, as CSV (default) or NDJSON "
+                + "(one JSON object per line). Rows are written as they are read, so any table size can be exported. "
+                + "The response is gzip-compressed when the client sends Accept-Encoding: gzip."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "The export",
+            content = {
+                @Content(
+                    mediaType = "text/csv",
+                    examples = @ExampleObject(value = "id,email,username,role,provider,enabled,created_at\n42,johndoe@example.com,johndoe,USER,LOCAL,true,1767225600000")
+                ),
+                @Content(
+                    mediaType = "application/x-ndjson",
+                    examples = @ExampleObject(value = "{\"id\":42,\"email\":\"johndoe@example.com\",\"username\":\"johndoe\",\"role\":\"USER\",\"provider\":\"LOCAL\",\"enabled\":true,\"createdAt\":1767225600000}")
+                )
+            }
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid format or filter value",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Unauthorized - Invalid or expired JWT token",
+            content = @Content(mediaType = "application/json")
+        ),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Forbidden - User does not have administrator permissions",
+            content = @Content(mediaType = "application/json")
+        )
+    })
+    @GetMapping("/users/export")
+    public void exportUsers(
+            @RequestParam(required = false) User.Role role,
+            @RequestParam(required = false) User.AuthProvider provider,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(defaultValue = "CSV") UserExportService.Format format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        boolean csv = format == UserExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(csv ? "users.csv" : "users.ndjson").build().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // Written on the request thread rather than as a StreamingResponseBody, so a long export
+        // isn't cut off by the async request timeout
+        UserFilter filter = new UserFilter(role, provider, enabled);
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            GZIPOutputStream gzip = new GZIPOutputStream(response.getOutputStream(), 8192);
+            userExportService.export(filter, format, gzip);
+            gzip.finish();
+        } else {
+            userExportService.export(filter, format, response.getOutputStream());
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
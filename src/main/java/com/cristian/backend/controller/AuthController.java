@@ -2,6 +2,7 @@ package com.cristian.backend.controller;
 
 import com.cristian.backend.dto.AuthResponse;
 import com.cristian.backend.dto.LoginRequest;
+import com.cristian.backend.dto.RefreshRequest;
 import com.cristian.backend.dto.RegisterRequest;
 import com.cristian.backend.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -37,9 +38,18 @@ public class AuthController {
 
     private final AuthService authService;
 
+    private static final String REFRESH_COOKIE = "refresh_token";
+    private static final String REFRESH_COOKIE_PATH = "/api/auth";
+
     @Value("${app.cookie.secure:false}")
     private boolean cookieSecure;
 
+    @Value("${jwt.expiration:86400000}")
+    private long jwtExpiration;
+
+    @Value("${jwt.refresh.expiration:2592000000}")
+    private long refreshExpiration;
+
     @Operation(
         summary = "Register new user",
         description = "Creates a new user account. A verification email will be sent to the provided email address."
@@ -106,6 +116,61 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
     }
 
+    @Operation(
+        summary = "Refresh JWT token",
+        description = "Exchanges a refresh token (request body or refresh_token cookie) for a new JWT and a new refresh token. "
+                + "Each refresh token works once; reusing one revokes the whole session."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Token refreshed",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AuthResponse.class),
+                examples = @ExampleObject(value = "{\"id\": 1, \"username\": \"johndoe\", \"email\": \"johndoe@example.com\", \"message\": \"Token refreshed\", \"success\": true, \"token\": \"eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...\", \"refreshToken\": \"q3V0Zk1xY2l2b1J6eUhqN0ZfTVhWbWxfbVdpd2dKQ2E\", \"role\": \"USER\"}")
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Invalid, expired or reused refresh token",
+            content = @Content(
+                mediaType = "text/plain",
+                examples = @ExampleObject(value = "Invalid or expired refresh token")
+            )
+        )
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(
+            @RequestBody(required = false) RefreshRequest body,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        String cookieToken = readCookie(request, REFRESH_COOKIE);
+        String refreshToken = body != null && body.getRefreshToken() != null ? body.getRefreshToken() : cookieToken;
+
+        AuthResponse authResponse = authService.refresh(refreshToken);
+
+        // Cookie sessions (OAuth2) keep working through cookies
+        if (cookieToken != null) {
+            response.addHeader("Set-Cookie", ResponseCookie.from("token", authResponse.getToken())
+                    .httpOnly(true)
+                    .secure(cookieSecure)
+                    .path("/")
+                    .maxAge(jwtExpiration / 1000)
+                    .sameSite("Lax")
+                    .build().toString());
+            response.addHeader("Set-Cookie", ResponseCookie.from(REFRESH_COOKIE, authResponse.getRefreshToken())
+                    .httpOnly(true)
+                    .secure(cookieSecure)
+                    .path(REFRESH_COOKIE_PATH)
+                    .maxAge(refreshExpiration / 1000)
+                    .sameSite("Lax")
+                    .build().toString());
+        }
+        return ResponseEntity.ok(authResponse);
+    }
+
     @Operation(
         summary = "Check service health",
         description = "Health check endpoint to verify that the authentication service is running"
@@ -249,7 +314,7 @@ public class AuthController {
 
     @Operation(
         summary = "Logout",
-        description = "Logs out the user by clearing the authentication cookie"
+        description = "Logs out the user by revoking the current JWT and refresh token and clearing the authentication cookies"
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -262,7 +327,17 @@ public class AuthController {
         )
     })
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, Object>> logout(HttpServletResponse response) {
+    public ResponseEntity<Map<String, Object>> logout(
+            @RequestBody(required = false) RefreshRequest body,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        // Revoke the tokens so copies of them stop working too
+        String refreshToken = body != null && body.getRefreshToken() != null
+                ? body.getRefreshToken()
+                : readCookie(request, REFRESH_COOKIE);
+        authService.logout(extractToken(request), refreshToken);
+
         // Clear the token cookie
         ResponseCookie cookie = ResponseCookie.from("token", "")
                 .httpOnly(true)
@@ -273,6 +348,13 @@ public class AuthController {
                 .build();
 
         response.addHeader("Set-Cookie", cookie.toString());
+        response.addHeader("Set-Cookie", ResponseCookie.from(REFRESH_COOKIE, "")
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .path(REFRESH_COOKIE_PATH)
+                .maxAge(0)
+                .sameSite("Lax")
+                .build().toString());
 
         // Clear security context
         SecurityContextHolder.clearContext();
@@ -283,6 +365,26 @@ public class AuthController {
         ));
     }
 
+    private static String extractToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        return readCookie(request, "token");
+    }
+
+    private static String readCookie(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (name.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
     @Operation(
         summary = "Resend verification email",
         description = "Resends the verification email to the specified email address"
@@ -0,0 +1,59 @@
+package com.cristian.backend.controller;
+
+import com.cristian.backend.security.JwtKeyRing;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Keys", description = "Public keys for verifying tokens issued by this API")
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    @Value("${jwt.jwks.max-age:3600}")
+    private long maxAgeSeconds;
+
+    @Operation(
+        summary = "JSON Web Key Set",
+        description = "Public ES256 keys that verify the tokens issued by this API. Downstream services can cache this document and verify tokens locally."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Current key set",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"keys\": [{\"kty\": \"EC\", \"use\": \"sig\", \"crv\": \"P-256\", \"kid\": \"2026-02\", \"x\": \"...\", \"y\": \"...\", \"alg\": \"ES256\"}]}")
+            )
+        ),
+        @ApiResponse(responseCode = "304", description = "Key set unchanged since the given ETag")
+    })
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        String body = JSONObjectUtils.toJSONString(keyRing.publicJwkSet().toJSONObject());
+        String etag = "\"" + DigestUtils.md5DigestAsHex(body.getBytes(StandardCharsets.UTF_8)) + "\"";
+
+        // Spring answers 304 Not Modified by itself when If-None-Match matches the ETag
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic())
+                .eTag(etag)
+                .body(body);
+    }
+}
@@ -37,6 +37,9 @@ public class AuthResponse {
     @Schema(description = "JWT token for authentication", example = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...")
     private String token;
 
+    @Schema(description = "Single-use refresh token, exchange it at /api/auth/refresh for a new JWT", example = "q3V0Zk1xY2l2b1J6eUhqN0ZfTVhWbWxfbVdpd2dKQ2E")
+    private String refreshToken;
+
     @Schema(description = "User's role in the system", example = "USER", allowableValues = {"USER", "ADMIN"})
     private String role;
 }
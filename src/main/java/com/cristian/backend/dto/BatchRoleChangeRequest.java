@@ -0,0 +1,32 @@
+package com.cristian.backend.dto;
+
+import com.cristian.backend.model.User;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to change the role of many users at once. Users can be given by ID, by email, or both.")
+public class BatchRoleChangeRequest {
+
+    @Schema(description = "IDs of the users to change", example = "[1, 2, 3]")
+    @Size(max = 10000, message = "At most 10000 user IDs per request")
+    private List<Long> userIds;
+
+    @Schema(description = "Email addresses of the users to change", example = "[\"johndoe@example.com\"]")
+    @Size(max = 10000, message = "At most 10000 emails per request")
+    private List<String> emails;
+
+    @Schema(description = "New role to assign to the users", example = "ADMIN", requiredMode = Schema.RequiredMode.REQUIRED, allowableValues = {"USER", "ADMIN"})
+    @NotNull(message = "Role is required")
+    private User.Role role;
+}
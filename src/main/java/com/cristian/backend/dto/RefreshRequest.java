@@ -0,0 +1,18 @@
+package com.cristian.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Refresh request. The token can also be sent in the refresh_token cookie")
+public class RefreshRequest {
+
+    @Schema(description = "Refresh token obtained at login or on the previous refresh", example = "q3V0Zk1xY2l2b1J6eUhqN0ZfTVhWbWxfbVdpd2dKQ2E")
+    private String refreshToken;
+}
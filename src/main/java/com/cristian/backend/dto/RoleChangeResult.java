@@ -0,0 +1,18 @@
+package com.cristian.backend.dto;
+
+/**
+ * Outcome of a batch role change for one requested user; {@code id} or {@code email} is null
+ * when the user was requested by the other one and does not exist
+ */
+public record RoleChangeResult(
+        Long id,
+        String email,
+        Status status
+) {
+
+    public enum Status {
+        UPDATED,
+        UNCHANGED, // already had the role
+        NOT_FOUND
+    }
+}
@@ -0,0 +1,17 @@
+package com.cristian.backend.dto;
+
+import com.cristian.backend.model.User;
+
+/**
+ * One row of the admin user export
+ */
+public record UserExportRow(
+        Long id,
+        String email,
+        String username,
+        User.Role role,
+        User.AuthProvider provider,
+        Boolean enabled,
+        Long createdAt
+) {
+}
@@ -0,0 +1,13 @@
+package com.cristian.backend.dto;
+
+import com.cristian.backend.model.User;
+
+/**
+ * Optional filters of the admin user listing; null means any
+ */
+public record UserFilter(
+        User.Role role,
+        User.AuthProvider provider,
+        Boolean enabled
+) {
+}
@@ -0,0 +1,19 @@
+package com.cristian.backend.dto;
+
+import com.cristian.backend.model.User;
+
+/**
+ * One row of the admin user listing
+ */
+public record UserListItem(
+        Long id,
+        String username,
+        String email,
+        String firstName,
+        String lastName,
+        User.Role role,
+        User.AuthProvider provider,
+        Boolean enabled,
+        Long createdAt
+) {
+}
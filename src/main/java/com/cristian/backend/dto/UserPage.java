@@ -0,0 +1,14 @@
+package com.cristian.backend.dto;
+
+import java.util.List;
+
+/**
+ * A page of the admin user listing. {@code nextCursor} is null on the last page and
+ * {@code total} is only set when the count was asked for.
+ */
+public record UserPage(
+        List<UserListItem> users,
+        String nextCursor,
+        Long total
+) {
+}
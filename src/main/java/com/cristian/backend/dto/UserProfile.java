@@ -0,0 +1,22 @@
+package com.cristian.backend.dto;
+
+import com.cristian.backend.model.User;
+
+/**
+ * Read-only view of a user without credentials, safe to cache and share between requests
+ */
+public record UserProfile(
+        Long id,
+        String username,
+        String email,
+        String firstName,
+        String lastName,
+        User.Role role,
+        Boolean enabled
+) {
+
+    public static UserProfile from(User user) {
+        return new UserProfile(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(),
+                user.getLastName(), user.getRole(), user.getEnabled());
+    }
+}
@@ -0,0 +1,18 @@
+package com.cristian.backend.dto;
+
+import com.cristian.backend.model.User;
+
+/**
+ * Identity and role of a user, as returned by the admin endpoints
+ */
+public record UserSummary(
+        Long id,
+        String username,
+        String email,
+        User.Role role
+) {
+
+    public UserSummary withRole(User.Role newRole) {
+        return new UserSummary(id, username, email, newRole);
+    }
+}
@@ -0,0 +1,7 @@
+package com.cristian.backend.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException() {
+        super("Invalid pagination cursor");
+    }
+}
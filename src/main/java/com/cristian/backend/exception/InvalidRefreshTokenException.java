@@ -0,0 +1,7 @@
+package com.cristian.backend.exception;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException() {
+        super("Invalid or expired refresh token");
+    }
+}
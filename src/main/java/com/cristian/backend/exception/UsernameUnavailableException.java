@@ -0,0 +1,7 @@
+package com.cristian.backend.exception;
+
+public class UsernameUnavailableException extends RuntimeException {
+    public UsernameUnavailableException(String base) {
+        super("No free username for '" + base + "', please try again later");
+    }
+}
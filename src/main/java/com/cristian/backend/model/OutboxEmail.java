@@ -0,0 +1,84 @@
+package com.cristian.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Entity
+public class OutboxEmail {
+
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    // Rendered UTF-8 bodies, sent as they are
+    @Column(name = "html_body", nullable = false, length = 1048576)
+    private byte[] htmlBody;
+
+    @Column(name = "text_body", nullable = false, length = 1048576)
+    private byte[] textBody;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    // Stored as the ordinal so that ORDER BY priority sends HIGH first
+    @Builder.Default
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false)
+    private Priority priority = Priority.NORMAL;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    // When a worker may (re)try it. Claiming pushes it forward, so a crashed worker's email is retried later
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    public enum Status {
+        PENDING,
+        SENT,
+        DEAD // gave up after the maximum number of attempts
+    }
+
+    public enum Priority {
+        HIGH, // blocks the user (verification)
+        NORMAL
+    }
+}
@@ -12,7 +12,11 @@ import jakarta.persistence.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        // Registration relies on these names to tell which field was taken
+        @UniqueConstraint(name = "uk_users_username", columnNames = "username"),
+        @UniqueConstraint(name = "uk_users_email", columnNames = "email")
+})
 @Entity
 public class User {
 
@@ -21,12 +25,12 @@ public class User {
     private Long id;
 
     @NotBlank(message = "Username is required")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String username;
 
     @NotBlank(message = "Email is required")
     @Email(message = "Email must be valid")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column
@@ -42,9 +46,6 @@ public class User {
     @Column(nullable = false)
     private Boolean enabled = false; // false until email is verified
 
-    @Column(name = "verification_token")
-    private String verificationToken;
-
     @Builder.Default
     @Enumerated(EnumType.STRING)
     private Role role = Role.USER;
@@ -53,7 +54,7 @@ public class User {
     private AuthProvider provider;
 
     @Builder.Default
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private Long createdAt = System.currentTimeMillis();
 
     public enum AuthProvider {
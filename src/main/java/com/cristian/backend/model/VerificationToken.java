@@ -0,0 +1,43 @@
+package com.cristian.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Table(name = "verification_tokens", indexes = {
+        @Index(name = "idx_verification_tokens_user_id", columnList = "user_id"),
+        @Index(name = "idx_verification_tokens_expires_at", columnList = "expires_at")
+})
+@Entity
+public class VerificationToken {
+
+    // SHA-256 (hex) of the verification JWT, so looking a token up is a fixed-width primary-key probe
+    @Id
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Address the token was sent to, checked against the JWT subject
+    @Column(nullable = false)
+    private String email;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
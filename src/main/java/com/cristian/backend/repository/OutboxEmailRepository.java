@@ -0,0 +1,62 @@
+package com.cristian.backend.repository;
+
+import com.cristian.backend.model.OutboxEmail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    /**
+     * Due emails, highest priority first, locked for the claiming transaction. Rows locked by
+     * another node are skipped (FOR UPDATE SKIP LOCKED where the database supports it)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEmail e WHERE e.status = com.cristian.backend.model.OutboxEmail.Status.PENDING " +
+            "AND e.nextAttemptAt <= :now ORDER BY e.priority, e.nextAttemptAt")
+    List<OutboxEmail> findDue(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.status = com.cristian.backend.model.OutboxEmail.Status.SENT, " +
+            "e.sentAt = :now, e.lastError = null WHERE e.id = :id")
+    int markSent(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.nextAttemptAt = :nextAttemptAt, e.lastError = :error WHERE e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("nextAttemptAt") Instant nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.status = com.cristian.backend.model.OutboxEmail.Status.DEAD, " +
+            "e.lastError = :error WHERE e.id = :id")
+    int markDead(@Param("id") Long id, @Param("error") String error);
+
+    /**
+     * Gives claimed emails back without counting the attempt (they were never handed to the provider)
+     */
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.attempts = e.attempts - 1, e.nextAttemptAt = :nextAttemptAt WHERE e.id IN :ids")
+    int release(@Param("ids") List<Long> ids, @Param("nextAttemptAt") Instant nextAttemptAt);
+
+    /**
+     * Deletes at most {@code limit} sent or dead emails created before {@code cutoff}, so a sweep
+     * never holds locks on the whole table
+     */
+    @Modifying
+    @Query(value = "DELETE FROM email_outbox WHERE id IN (" +
+            "SELECT id FROM email_outbox WHERE status IN ('SENT', 'DEAD') AND created_at < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deleteFinished(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    long countByStatus(OutboxEmail.Status status);
+}
@@ -0,0 +1,73 @@
+package com.cristian.backend.repository;
+
+import com.cristian.backend.dto.UserExportRow;
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the users table for the admin export through a plain JDBC cursor, one row at a time.
+ * <p>
+ * Nothing goes through the persistence context and the driver only holds {@code fetchSize} rows,
+ * so memory stays flat however big the table is. PostgreSQL only uses a server-side cursor inside
+ * a transaction (autocommit off), so callers must run in one.
+ */
+@Repository
+public class UserExportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserExportRepository(DataSource dataSource,
+                                @Value("${admin.users.export-fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Passes every user matching the filter to {@code action}, in id order
+     */
+    public void forEach(UserFilter filter, Consumer<UserExportRow> action) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (filter.role() != null) {
+            conditions.add("role = ?");
+            parameters.add(filter.role().name());
+        }
+        if (filter.provider() != null) {
+            conditions.add("provider = ?");
+            parameters.add(filter.provider().name());
+        }
+        if (filter.enabled() != null) {
+            conditions.add("enabled = ?");
+            parameters.add(filter.enabled());
+        }
+
+        String sql = "SELECT id, email, username, role, provider, enabled, created_at FROM users"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY id";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> action.accept(row(rs)), parameters.toArray());
+    }
+
+    private static UserExportRow row(ResultSet rs) throws SQLException {
+        String role = rs.getString("role");
+        String provider = rs.getString("provider");
+        return new UserExportRow(
+                rs.getLong("id"),
+                rs.getString("email"),
+                rs.getString("username"),
+                role != null ? User.Role.valueOf(role) : null,
+                provider != null ? User.AuthProvider.valueOf(provider) : null,
+                rs.getBoolean("enabled"),
+                rs.getLong("created_at"));
+    }
+}
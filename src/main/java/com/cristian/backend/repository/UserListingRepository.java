@@ -0,0 +1,20 @@
+package com.cristian.backend.repository;
+
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.dto.UserListItem;
+
+import java.util.List;
+
+/**
+ * Admin user listing, newest first, paginated by seeking past the last (created_at, id) seen
+ */
+public interface UserListingRepository {
+
+    /**
+     * Up to {@code limit} users matching the filter that come after the given position
+     * ({@code afterCreatedAt}/{@code afterId} null for the first page)
+     */
+    List<UserListItem> findPage(UserFilter filter, Long afterCreatedAt, Long afterId, int limit);
+
+    long countMatching(UserFilter filter);
+}
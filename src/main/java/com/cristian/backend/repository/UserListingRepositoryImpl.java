@@ -0,0 +1,76 @@
+package com.cristian.backend.repository;
+
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.dto.UserListItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Only the filters that are set end up in the WHERE clause, so each combination gets its own plan
+ * and can use the matching (filter, created_at, id) index; the seek is a row-value comparison the
+ * index range scan starts from, so every page costs the same.
+ */
+@Transactional(readOnly = true)
+public class UserListingRepositoryImpl implements UserListingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserListItem> findPage(UserFilter filter, Long afterCreatedAt, Long afterId, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        List<String> conditions = conditions(filter, parameters);
+        if (afterCreatedAt != null && afterId != null) {
+            conditions.add("(u.createdAt, u.id) < (:afterCreatedAt, :afterId)");
+            parameters.put("afterCreatedAt", afterCreatedAt);
+            parameters.put("afterId", afterId);
+        }
+
+        TypedQuery<UserListItem> query = entityManager.createQuery(
+                "SELECT new com.cristian.backend.dto.UserListItem(u.id, u.username, u.email, u.firstName, u.lastName, "
+                        + "u.role, u.provider, u.enabled, u.createdAt) FROM User u"
+                        + where(conditions)
+                        + " ORDER BY u.createdAt DESC, u.id DESC", UserListItem.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public long countMatching(UserFilter filter) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        List<String> conditions = conditions(filter, parameters);
+
+        TypedQuery<Long> query = entityManager.createQuery(
+                "SELECT COUNT(u) FROM User u" + where(conditions), Long.class);
+        parameters.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    private static List<String> conditions(UserFilter filter, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.role() != null) {
+            conditions.add("u.role = :role");
+            parameters.put("role", filter.role());
+        }
+        if (filter.provider() != null) {
+            conditions.add("u.provider = :provider");
+            parameters.put("provider", filter.provider());
+        }
+        if (filter.enabled() != null) {
+            conditions.add("u.enabled = :enabled");
+            parameters.put("enabled", filter.enabled());
+        }
+        return conditions;
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+}
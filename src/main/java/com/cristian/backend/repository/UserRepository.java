@@ -1,22 +1,123 @@
 package com.cristian.backend.repository;
 
+import com.cristian.backend.dto.UserProfile;
+import com.cristian.backend.dto.UserSummary;
 import com.cristian.backend.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserListingRepository {
 
+    @Transactional(readOnly = true)
     Optional<User> findByUsername(String username);
 
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
 
+    @Transactional(readOnly = true)
     Boolean existsByUsername(String username);
 
+    @Transactional(readOnly = true)
     Boolean existsByEmail(String email);
 
-    Optional<User> findByVerificationToken(String verificationToken);
-}
+    /**
+     * Profile fields only: no entity is loaded, so no password and no dirty-checking snapshot
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.cristian.backend.dto.UserProfile(u.id, u.username, u.email, u.firstName, u.lastName, u.role, u.enabled) "
+            + "FROM User u WHERE u.email = :email")
+    Optional<UserProfile> findProfileByEmail(@Param("email") String email);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.cristian.backend.dto.UserProfile(u.id, u.username, u.email, u.firstName, u.lastName, u.role, u.enabled) "
+            + "FROM User u WHERE u.id = :id")
+    Optional<UserProfile> findProfileById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.cristian.backend.dto.UserSummary(u.id, u.username, u.email, u.role) FROM User u WHERE u.email = :email")
+    Optional<UserSummary> findSummaryByEmail(@Param("email") String email);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.cristian.backend.dto.UserSummary(u.id, u.username, u.email, u.role) FROM User u WHERE u.id = :id")
+    Optional<UserSummary> findSummaryById(@Param("id") Long id);
+
+    /**
+     * Sets the role without loading the user, returns the number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.role = :role WHERE u.id = :id")
+    int updateRole(@Param("id") Long id, @Param("role") User.Role role);
+
+    /**
+     * Summaries of the given users, locked (SELECT ... FOR UPDATE) until the transaction ends so the
+     * roles read stay the ones a following {@link #updateRoles} changes. Locked in id order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.cristian.backend.dto.UserSummary(u.id, u.username, u.email, u.role) FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<UserSummary> lockSummariesByIdIn(@Param("ids") Collection<Long> ids);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.cristian.backend.dto.UserSummary(u.id, u.username, u.email, u.role) FROM User u WHERE u.email IN :emails ORDER BY u.id")
+    List<UserSummary> lockSummariesByEmailIn(@Param("emails") Collection<String> emails);
+
+    /**
+     * Sets the role of every listed user that doesn't have it yet, in one statement
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.role = :role WHERE u.id IN :ids AND (u.role IS NULL OR u.role <> :role)")
+    int updateRoles(@Param("ids") Collection<Long> ids, @Param("role") User.Role role);
+
+    /**
+     * Highest numeric suffix taken for {@code base}: 0 for {@code base} itself, n for {@code base<n>}, empty if neither
+     * exists. One range read on the unique index ([lower, upper) covers every {@code base<digits>}); names with anything
+     * but up to 18 digits after the base are filtered out.
+     * Not read-only on purpose: it must see the latest names, so it stays on the primary.
+     */
+    @Query(value = """
+            SELECT MAX(CASE WHEN u.username = :base THEN 0
+                            ELSE CAST(SUBSTRING(u.username, LENGTH(:base) + 1) AS BIGINT) END)
+            FROM users u
+            WHERE (u.username = :base OR (u.username >= :lower AND u.username < :upper))
+              AND LENGTH(u.username) <= LENGTH(:base) + 18
+              AND SUBSTRING(u.username, 1, LENGTH(:base)) = :base
+              AND LTRIM(SUBSTRING(u.username, LENGTH(:base) + 1), '0123456789') = ''
+            """, nativeQuery = true)
+    Optional<Long> findMaxUsernameSuffix(@Param("base") String base,
+                                         @Param("lower") String lower,
+                                         @Param("upper") String upper);
+
+    /**
+     * Enables the user only if it is still disabled, returns the number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.enabled = true WHERE u.id = :id AND u.enabled = false")
+    int enable(@Param("id") Long id);
+
+    /**
+     * Inserts a Google user or returns the existing row with that email in one statement (PostgreSQL only).
+     * The no-op update on conflict is what makes RETURNING yield the existing row.
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO users (username, email, password, first_name, last_name, enabled, role, provider, created_at)
+            VALUES (:username, :email, NULL, :firstName, :lastName, TRUE, 'USER', 'GOOGLE', :createdAt)
+            ON CONFLICT (email) DO UPDATE SET email = EXCLUDED.email
+            RETURNING *
+            """, nativeQuery = true)
+    User upsertGoogleUser(@Param("username") String username,
+                          @Param("email") String email,
+                          @Param("firstName") String firstName,
+                          @Param("lastName") String lastName,
+                          @Param("createdAt") Long createdAt);
+}
@@ -0,0 +1,29 @@
+package com.cristian.backend.repository;
+
+import com.cristian.backend.model.VerificationToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface VerificationTokenRepository extends JpaRepository<VerificationToken, String> {
+
+    Optional<VerificationToken> findFirstByUserIdOrderByCreatedAtDesc(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM VerificationToken t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes at most {@code limit} expired tokens, so a sweep never holds locks on the whole table
+     */
+    @Modifying
+    @Query(value = "DELETE FROM verification_tokens WHERE token_hash IN (" +
+            "SELECT token_hash FROM verification_tokens WHERE expires_at < :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
+}
@@ -1,7 +1,5 @@
 package com.cristian.backend.security;
 
-import com.cristian.backend.model.User;
-import com.cristian.backend.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -10,23 +8,23 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtCookieAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final JwtDecoder jwtDecoder;
+    private final TokenAuthenticationConverter authenticationConverter;
 
     @Override
     protected void doFilterInternal(
@@ -46,42 +44,14 @@ public class JwtCookieAuthenticationFilter extends OncePerRequestFilter {
 
         if (token != null && !token.isEmpty()) {
             try {
-                // Validar que el token no haya expirado
-                if (!jwtService.isTokenExpired(token)) {
-                    String email = jwtService.extractSubject(token);
-                    String role = jwtService.extractRole(token);
-
-                    log.info("Token found for: {} with role in token: {}", email, role);
-
-                    // Si el token no tiene rol, buscamos en la base de datos
-                    if (role == null || role.isEmpty()) {
-                        Optional<User> userOpt = userRepository.findByEmail(email);
-                        if (userOpt.isPresent()) {
-                            role = userOpt.get().getRole().name();
-                            log.info("Role obtained from DB for {}: {}", email, role);
-                        } else {
-                            role = "USER"; // default
-                            log.warn("User not found in DB, using default role: USER");
-                        }
-                    }
-
-                    if (email != null) {
-                        // Crear autoridad con el prefijo ROLE_
-                        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role);
-
-                        UsernamePasswordAuthenticationToken authentication =
-                                new UsernamePasswordAuthenticationToken(
-                                        email,
-                                        null,
-                                        Collections.singletonList(authority)
-                                );
-
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        log.info("User authenticated: {} with role: ROLE_{}", email, role);
-                    }
-                } else {
-                    log.warn("Token expired");
-                }
+                // Misma verificación y conversión que el resource server (Authorization: Bearer)
+                Jwt jwt = jwtDecoder.decode(token);
+                AbstractAuthenticationToken authentication = authenticationConverter.convert(jwt);
+
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                log.info("User authenticated: {} with authorities: {}", authentication.getName(), authentication.getAuthorities());
+            } catch (JwtException e) {
+                log.warn("Rejected cookie token: {}", e.getMessage());
             } catch (Exception e) {
                 log.error("Error processing cookie token: {}", e.getMessage());
             }
@@ -102,4 +72,3 @@ public class JwtCookieAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 }
-
@@ -0,0 +1,201 @@
+package com.cristian.backend.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signing keys for JWTs, built once at startup.
+ * <p>
+ * New tokens are signed with the active key and carry its {@code kid} header.
+ * Verification picks the key by {@code kid}; tokens without one (issued before the
+ * key ring existed) are checked against {@code jwt.secret}. Retired keys are kept
+ * until the longest-lived token they could have signed has expired.
+ * <p>
+ * Keys can be HMAC (HS256) or ECDSA P-256 (ES256). Public ES256 keys are exported
+ * as a JWK set so other services can verify tokens locally.
+ */
+@Slf4j
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    public static final String DEFAULT_KID = "default";
+
+    private final Map<String, Entry> keys;
+    private final Entry signingKey;
+
+    public JwtKeyRing(String defaultSecret, String signingKid, List<JwtKeyRingProperties.Key> ringKeys, Duration retention) {
+        Map<String, Entry> entries = new HashMap<>();
+        if (defaultSecret != null && !defaultSecret.isBlank()) {
+            Key key = hmacKey(defaultSecret);
+            entries.put(DEFAULT_KID, new Entry(DEFAULT_KID, SignatureAlgorithm.HS256, key, key, null));
+        }
+        for (JwtKeyRingProperties.Key key : ringKeys) {
+            if (key.kid() == null || key.kid().isBlank()) {
+                throw new IllegalStateException("Every jwt.key-ring key needs a kid");
+            }
+            Instant verifyUntil = key.retiredAt() != null && !key.retiredAt().isBlank()
+                    ? Instant.parse(key.retiredAt()).plus(retention)
+                    : null;
+            if (entries.put(key.kid(), toEntry(key, verifyUntil)) != null) {
+                throw new IllegalStateException("Duplicate JWT key id: " + key.kid());
+            }
+        }
+        this.keys = Map.copyOf(entries);
+
+        String activeKid = signingKid != null && !signingKid.isBlank() ? signingKid : DEFAULT_KID;
+        this.signingKey = keys.get(activeKid);
+        if (signingKey == null) {
+            throw new IllegalStateException("No JWT signing key configured for kid: " + activeKid);
+        }
+        if (signingKey.verifyUntil() != null) {
+            throw new IllegalStateException("JWT signing key " + activeKid + " is retired");
+        }
+        if (signingKey.signingKey() == null) {
+            throw new IllegalStateException("JWT signing key " + activeKid + " has no private key");
+        }
+        log.info("JWT key ring loaded with {} key(s), signing with kid: {} ({})",
+                keys.size(), activeKid, signingKey.algorithm().getValue());
+    }
+
+    /**
+     * Key id stamped on newly issued tokens
+     */
+    public String signingKid() {
+        return signingKey.kid();
+    }
+
+    /**
+     * Algorithm used to sign newly issued tokens
+     */
+    public SignatureAlgorithm signingAlgorithm() {
+        return signingKey.algorithm();
+    }
+
+    /**
+     * Key used to sign newly issued tokens (HMAC secret or EC private key)
+     */
+    public Key signingKey() {
+        return signingKey.signingKey();
+    }
+
+    /**
+     * Resolves the verification key for the token's kid header.
+     * The header algorithm must match the key's, so an ES256 public key can never be used as an HMAC secret.
+     */
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        Entry entry = activeEntry(header.getKeyId());
+        if (!entry.algorithm().getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException("JWT algorithm " + header.getAlgorithm() + " does not match key " + entry.kid());
+        }
+        return entry.verificationKey();
+    }
+
+    /**
+     * Gets the key that verifies tokens with the given kid
+     */
+    public Key verificationKey(String kid) {
+        return activeEntry(kid).verificationKey();
+    }
+
+    /**
+     * Public JWK set of the asymmetric keys that still verify tokens.
+     * HMAC secrets are never published.
+     */
+    public JWKSet publicJwkSet() {
+        List<JWK> jwks = new ArrayList<>();
+        Instant now = Instant.now();
+        for (Entry entry : keys.values()) {
+            boolean verifying = entry.verifyUntil() == null || entry.verifyUntil().isAfter(now);
+            if (verifying && entry.verificationKey() instanceof ECPublicKey publicKey) {
+                jwks.add(new ECKey.Builder(Curve.P_256, publicKey)
+                        .keyID(entry.kid())
+                        .algorithm(JWSAlgorithm.ES256)
+                        .keyUse(KeyUse.SIGNATURE)
+                        .build());
+            }
+        }
+        jwks.sort((a, b) -> a.getKeyID().compareTo(b.getKeyID()));
+        return new JWKSet(jwks);
+    }
+
+    private Entry activeEntry(String kid) {
+        Entry entry = keys.get(kid != null ? kid : DEFAULT_KID);
+        if (entry == null) {
+            throw new SignatureException("Unknown JWT key id: " + kid);
+        }
+        if (entry.verifyUntil() != null && entry.verifyUntil().isBefore(Instant.now())) {
+            throw new SignatureException("JWT key " + kid + " has been retired");
+        }
+        return entry;
+    }
+
+    private static Entry toEntry(JwtKeyRingProperties.Key key, Instant verifyUntil) {
+        String algorithm = key.algorithm() != null && !key.algorithm().isBlank() ? key.algorithm() : "HS256";
+        switch (algorithm) {
+            case "HS256" -> {
+                Key secret = hmacKey(key.secret());
+                return new Entry(key.kid(), SignatureAlgorithm.HS256, secret, secret, verifyUntil);
+            }
+            case "ES256" -> {
+                if (key.publicKey() == null || key.publicKey().isBlank()) {
+                    throw new IllegalStateException("ES256 JWT key " + key.kid() + " needs a public-key");
+                }
+                Key privateKey = key.privateKey() != null && !key.privateKey().isBlank()
+                        ? ecKey(key.kid(), key.privateKey(), true)
+                        : null;
+                return new Entry(key.kid(), SignatureAlgorithm.ES256, privateKey, ecKey(key.kid(), key.publicKey(), false), verifyUntil);
+            }
+            default -> throw new IllegalStateException("Unsupported JWT algorithm for key " + key.kid() + ": " + algorithm);
+        }
+    }
+
+    private static Key hmacKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("JWT key secret must not be empty");
+        }
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+
+    private static Key ecKey(String kid, String encoded, boolean isPrivate) {
+        // Accept both PEM and bare Base64 DER
+        String base64 = encoded.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        try {
+            byte[] der = Base64.getDecoder().decode(base64);
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            return isPrivate
+                    ? keyFactory.generatePrivate(new PKCS8EncodedKeySpec(der))
+                    : keyFactory.generatePublic(new X509EncodedKeySpec(der));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid EC " + (isPrivate ? "private" : "public") + " key for kid " + kid, e);
+        }
+    }
+
+    private record Entry(String kid, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey, Instant verifyUntil) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.cristian.backend.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Signing keys configured under {@code jwt.key-ring}.
+ * <p>
+ * To rotate: add a new key, point {@code signing-kid} at it and set {@code retired-at}
+ * on the previous one. Retired keys keep verifying until every token they signed has expired.
+ * ES256 public keys are published at {@code /.well-known/jwks.json}.
+ */
+@ConfigurationProperties(prefix = "jwt.key-ring")
+public record JwtKeyRingProperties(
+        String signingKid,
+        List<Key> keys
+) {
+
+    public JwtKeyRingProperties {
+        keys = keys != null ? List.copyOf(keys) : List.of();
+    }
+
+    /**
+     * @param kid        identifier stamped in the token header
+     * @param algorithm  HS256 (default) or ES256
+     * @param secret     Base64 encoded HMAC secret (HS256)
+     * @param publicKey  Base64 or PEM encoded X.509 public key (ES256)
+     * @param privateKey Base64 or PEM encoded PKCS#8 private key (ES256, only needed to sign)
+     * @param retiredAt  ISO-8601 instant after which the key no longer signs (optional)
+     */
+    public record Key(
+            String kid,
+            String algorithm,
+            String secret,
+            String publicKey,
+            String privateKey,
+            String retiredAt
+    ) {
+    }
+}
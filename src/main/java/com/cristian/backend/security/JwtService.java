@@ -1,26 +1,27 @@
 package com.cristian.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 @Slf4j
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private final JwtKeyRing keyRing;
+    private final JwtParser parser;
+    private final TokenCache<VerifiedToken> tokenCache;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
@@ -28,6 +29,15 @@ public class JwtService {
     @Value("${jwt.verification.expiration}")
     private long verificationExpiration;
 
+    public JwtService(JwtKeyRing keyRing, TokenCache<VerifiedToken> tokenCache) {
+        this.keyRing = keyRing;
+        this.tokenCache = tokenCache;
+        // The parser is immutable and thread-safe, so it is built only once
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyRing)
+                .build();
+    }
+
     /**
      * Generates a JWT token for user authentication
      */
@@ -58,7 +68,7 @@ public class JwtService {
      */
     public String generateVerificationToken(String email) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("type", "verification");
+        claims.put("type", VerifiedToken.VERIFICATION_TYPE);
         return createToken(claims, email, verificationExpiration);
     }
 
@@ -70,11 +80,13 @@ public class JwtService {
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.signingKid())
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(keyRing.signingKey(), keyRing.signingAlgorithm())
                 .compact();
     }
 
@@ -100,15 +112,32 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Parses and verifies the token once, returning all the claims callers need.
+     * Tokens already verified are served from the cache until they expire.
+     */
+    public VerifiedToken verifyToken(String token) {
+        return tokenCache.get(token, this::parseVerifiedToken);
+    }
+
+    private VerifiedToken parseVerifiedToken(String token) {
+        Claims claims = extractAllClaims(token);
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("type", String.class),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration())
+        );
+    }
+
     /**
      * Extracts all claims from the token
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (Exception e) {
             log.error("Error extracting claims from token: {}", e.getMessage());
             throw e;
@@ -120,7 +149,7 @@ public class JwtService {
      */
     public boolean isTokenExpired(String token) {
         try {
-            return extractExpiration(token).before(new Date());
+            return verifyToken(token).isExpired();
         } catch (Exception e) {
             return true; // If there's an error, consider the token expired
         }
@@ -131,21 +160,16 @@ public class JwtService {
      */
     public boolean validateVerificationToken(String token) {
         try {
-            Claims claims = extractAllClaims(token);
-            String type = claims.get("type", String.class);
-            return "verification".equals(type) && !isTokenExpired(token);
+            VerifiedToken verified = verifyToken(token);
+            return verified.isVerificationToken() && !verified.isExpired();
         } catch (Exception e) {
             log.error("Error validating verification token: {}", e.getMessage());
             return false;
         }
     }
 
-    /**
-     * Gets the signing key
-     */
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
     }
 }
 
@@ -0,0 +1,61 @@
+package com.cristian.backend.security;
+
+import com.cristian.backend.service.TokenRevocationService;
+import io.jsonwebtoken.ExpiredJwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Component;
+
+/**
+ * The only JWT verification engine in the application.
+ * <p>
+ * Both the resource server ({@code Authorization: Bearer}) and {@link JwtCookieAuthenticationFilter}
+ * decode through here, so every token is checked by {@link JwtService} against the same key ring
+ * and lands in the same verified-token cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtServiceJwtDecoder implements JwtDecoder {
+
+    private final JwtService jwtService;
+    private final TokenRevocationService revocationService;
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verifyToken(token);
+        } catch (ExpiredJwtException e) {
+            throw new BadJwtException("Token expired", e);
+        } catch (RuntimeException e) {
+            throw new BadJwtException("Invalid token: " + e.getMessage(), e);
+        }
+
+        if (verified.isExpired()) {
+            throw new BadJwtException("Token expired");
+        }
+        if (verified.subject() == null || verified.subject().isEmpty()) {
+            throw new BadJwtException("Token has no subject");
+        }
+        if (verified.isVerificationToken()) {
+            throw new BadJwtException("Verification tokens cannot be used for authentication");
+        }
+        // Checked after the cache lookup: revocation must apply to tokens that are already cached
+        if (revocationService.isRevoked(verified.id())) {
+            throw new BadJwtException("Token revoked");
+        }
+
+        Jwt.Builder jwt = Jwt.withTokenValue(token)
+                .header("typ", "JWT")
+                .subject(verified.subject())
+                .issuedAt(verified.issuedAt())
+                .expiresAt(verified.expiration());
+        if (verified.role() != null) {
+            jwt.claim("role", verified.role());
+        }
+        return jwt.build();
+    }
+}
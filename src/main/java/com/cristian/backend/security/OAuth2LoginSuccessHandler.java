@@ -1,6 +1,7 @@
 package com.cristian.backend.security;
 
 import com.cristian.backend.model.User;
+import com.cristian.backend.service.RefreshTokenService;
 import com.cristian.backend.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -22,10 +23,14 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
 
     private final UserService userService;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
 
     @Value("${app.cookie.secure}")
     private boolean cookieSecure;
 
+    @Value("${jwt.expiration:86400000}")
+    private long jwtExpiration;
+
     @Value("${app.frontend.url:http://localhost:3000}")
     private String frontendUrl;
 
@@ -52,11 +57,22 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
                 .secure(cookieSecure)
                 .path("/")
                 .sameSite("Lax")
-                .maxAge(86400)
+                .maxAge(jwtExpiration / 1000)
                 .build();
 
         response.addHeader("Set-Cookie", cookie.toString());
 
+        // Refresh token, only sent to /api/auth (refresh and logout)
+        ResponseCookie refreshCookie = ResponseCookie.from("refresh_token", refreshTokenService.issue(user.getId()))
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .path("/api/auth")
+                .sameSite("Lax")
+                .maxAge(refreshTokenService.getRefreshExpiration() / 1000)
+                .build();
+
+        response.addHeader("Set-Cookie", refreshCookie.toString());
+
         // Redirect to frontend
         String redirectUrl = frontendUrl + "/auth/callback";
         log.info("Redirecting to: {}", redirectUrl);
@@ -0,0 +1,53 @@
+package com.cristian.backend.security;
+
+import com.cristian.backend.dto.UserProfile;
+import com.cristian.backend.repository.UserRepository;
+import com.cristian.backend.service.ReadYourWritesGuard;
+import com.cristian.backend.service.UserCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Turns a verified {@link Jwt} into an {@link org.springframework.security.core.Authentication}.
+ * Shared by the bearer resource server and the cookie filter.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ReadYourWritesGuard readYourWrites;
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        String email = jwt.getSubject();
+        String role = jwt.getClaimAsString("role");
+
+        // If the token has no role, look it up in the database
+        if (role == null || role.isEmpty()) {
+            Optional<UserProfile> userOpt = userCache.byEmail(email,
+                    key -> readYourWrites.read(key, () -> userRepository.findProfileByEmail(key)));
+            if (userOpt.isPresent()) {
+                role = userOpt.get().role().name();
+                log.info("Role obtained from DB for {}: {}", email, role);
+            } else {
+                role = "USER"; // default
+                log.warn("User not found in DB, using default role: USER");
+            }
+        }
+
+        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role);
+        return new JwtAuthenticationToken(jwt, Collections.singletonList(authority), email);
+    }
+}
@@ -0,0 +1,106 @@
+package com.cristian.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of already verified tokens, keyed by the SHA-256 digest of the compact JWT.
+ * Each entry lives until the token's own expiration, and Caffeine's W-TinyLFU policy
+ * evicts cold tokens once the size limit is reached.
+ */
+public class TokenCache<T> {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Cache<ByteBuffer, T> cache;
+
+    public TokenCache(long maximumSize, Function<T, Instant> expiresAt) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpires<>(expiresAt))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached value for the token, verifying it on a miss.
+     * Exceptions thrown by the verifier are propagated and nothing is cached.
+     */
+    public T get(String token, Function<String, T> verifier) {
+        return cache.get(digest(token), key -> verifier.apply(token));
+    }
+
+    /**
+     * Drops the cached value for the token, if any
+     */
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Underlying Caffeine cache, used to bind metrics
+     */
+    public Cache<ByteBuffer, T> nativeCache() {
+        return cache;
+    }
+
+    private static ByteBuffer digest(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        }
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record UntilTokenExpires<T>(Function<T, Instant> expiresAt) implements Expiry<ByteBuffer, T> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, T value, long currentTime) {
+            Instant expiration = expiresAt.apply(value);
+            if (expiration == null) {
+                return 0;
+            }
+            long remaining = Duration.between(Instant.now(), expiration).toNanos();
+            return Math.max(remaining, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, T value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, T value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
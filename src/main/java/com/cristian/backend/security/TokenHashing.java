@@ -0,0 +1,28 @@
+package com.cristian.backend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hashes opaque tokens before they are stored, so a database dump does not leak usable tokens.
+ * Used for refresh tokens and verification tokens.
+ */
+public final class TokenHashing {
+
+    private TokenHashing() {
+    }
+
+    /**
+     * Returns the lowercase hex SHA-256 of the token's UTF-8 bytes.
+     */
+    public static String sha256Hex(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
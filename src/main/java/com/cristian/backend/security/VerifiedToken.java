@@ -0,0 +1,34 @@
+package com.cristian.backend.security;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature has already been verified.
+ * Produced once per token by {@link JwtService#verifyToken(String)} so callers
+ * don't have to parse the same token several times.
+ */
+public record VerifiedToken(
+        String id,
+        String subject,
+        String role,
+        String type,
+        Instant issuedAt,
+        Instant expiration
+) {
+
+    public static final String VERIFICATION_TYPE = "verification";
+
+    /**
+     * Checks if the token has expired
+     */
+    public boolean isExpired() {
+        return expiration == null || expiration.isBefore(Instant.now());
+    }
+
+    /**
+     * Checks if the token was issued for email verification
+     */
+    public boolean isVerificationToken() {
+        return VERIFICATION_TYPE.equals(type);
+    }
+}
@@ -3,13 +3,21 @@ package com.cristian.backend.service;
 import com.cristian.backend.dto.AuthResponse;
 import com.cristian.backend.dto.LoginRequest;
 import com.cristian.backend.dto.RegisterRequest;
+import com.cristian.backend.dto.UserProfile;
 import com.cristian.backend.model.User;
+import com.cristian.backend.model.VerificationToken;
 import com.cristian.backend.repository.UserRepository;
 import com.cristian.backend.security.JwtService;
+import com.cristian.backend.security.VerifiedToken;
 import com.cristian.backend.exception.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
 
 @Service
 @RequiredArgsConstructor
@@ -17,43 +25,57 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final JwtService jwtService;
-
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final VerificationResendCoalescer resendCoalescer;
+    private final VerificationTokenService verificationTokenService;
+    private final UserCache userCache;
+    private final ReadYourWritesGuard readYourWrites;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Registers the user with a single INSERT; a taken username or email is detected by the
+     * unique constraint it violates, which also holds for concurrent registrations.
+     * The password is hashed before the transaction starts, so no database connection is held
+     * while waiting for (and running) bcrypt.
+     */
     public AuthResponse register(RegisterRequest request) {
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new UsernameAlreadyExistsException();
-        }
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new EmailAlreadyRegisteredException();
-        }
-
-        // Generate verification JWT token
-        String verificationToken = jwtService.generateVerificationToken(request.getEmail());
+        String passwordHash = passwordEncoder.encode(request.getPassword());
+        return transactionTemplate.execute(status -> register(request, passwordHash));
+    }
 
+    private AuthResponse register(RegisterRequest request, String passwordHash) {
         // Create new user
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHash)
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
+                .provider(User.AuthProvider.LOCAL)
                 .enabled(false)
-                .verificationToken(verificationToken)
                 .build();
 
-        User savedUser = userRepository.save(user);
-
+        User savedUser;
         try {
-            emailService.sendVerificationEmail(
-                savedUser.getEmail(),
-                savedUser.getUsername(),
-                verificationToken
-            );
-        } catch (Exception e) {
-
-            System.err.println("Error sending verification email: " + e.getMessage());
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw registrationConflict(e);
         }
+        userCache.invalidate(savedUser);
+        readYourWrites.recordWrite(savedUser.getId(), savedUser.getEmail(), savedUser.getUsername());
+
+        // Generate verification JWT token
+        String verificationToken = verificationTokenService.issue(savedUser.getId(), savedUser.getEmail());
+
+        // Queued in the same transaction, delivered by the outbox workers after commit
+        emailOutboxService.queueVerificationEmail(
+            savedUser.getEmail(),
+            savedUser.getUsername(),
+            verificationToken
+        );
 
         return AuthResponse.builder()
                 .id(savedUser.getId())
@@ -73,9 +95,9 @@ public class AuthService {
         String emailRegex = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
 
         if (identifier.matches(emailRegex)) {
-            user = userRepository.findByEmail(identifier).orElse(null);
+            user = readYourWrites.read(identifier, () -> userRepository.findByEmail(identifier)).orElse(null);
         } else {
-            user = userRepository.findByUsername(identifier).orElse(null);
+            user = readYourWrites.read(identifier, () -> userRepository.findByUsername(identifier)).orElse(null);
         }
 
         if (user == null) {
@@ -100,65 +122,117 @@ public class AuthService {
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
                 .token(token)
+                .refreshToken(refreshTokenService.issue(user.getId()))
                 .role(user.getRole().name())
                 .success(true)
                 .message("Login successful")
                 .build();
     }
 
-    public AuthResponse verifyEmail(String token) {
-        if (!jwtService.validateVerificationToken(token)) {
-            throw new VerificationTokenInvalidException();
+    /**
+     * Exchanges a refresh token for a new JWT and refresh token without checking the password
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+
+        UserProfile user = userCache.byId(rotation.userId(),
+                        id -> readYourWrites.read(id, () -> userRepository.findProfileById(id)))
+                .orElseThrow(InvalidRefreshTokenException::new);
+        if (!user.enabled()) {
+            throw new InvalidRefreshTokenException();
         }
 
-        String email;
+        // Role is read again so role changes apply on the next refresh (role changes evict the cache)
+        String token = jwtService.generateToken(user.email(), user.role().name());
+
+        return AuthResponse.builder()
+                .id(user.id())
+                .username(user.username())
+                .email(user.email())
+                .firstName(user.firstName())
+                .lastName(user.lastName())
+                .token(token)
+                .refreshToken(rotation.refreshToken())
+                .role(user.role().name())
+                .success(true)
+                .message("Token refreshed")
+                .build();
+    }
+
+    @Transactional
+    public AuthResponse verifyEmail(String token) {
+        VerifiedToken verified;
         try {
-            email = jwtService.extractSubject(token);
+            verified = jwtService.verifyToken(token);
         } catch (Exception e) {
-            throw new ErrorExtractingEmailException();
+            throw new VerificationTokenInvalidException();
         }
 
-        User user = userRepository.findByVerificationToken(token)
-                .orElse(null);
+        if (!verified.isVerificationToken() || verified.isExpired()) {
+            throw new VerificationTokenInvalidException();
+        }
 
-        if (user == null) {
-            throw new InvalidVerificationTokenException();
+        String email = verified.subject();
+        if (email == null || email.isEmpty()) {
+            throw new ErrorExtractingEmailException();
         }
 
-        if (!user.getEmail().equals(email)) {
+        // Primary-key probe on the token's SHA-256
+        VerificationToken stored = verificationTokenService.find(token)
+                .orElseThrow(InvalidVerificationTokenException::new);
+
+        if (!stored.getEmail().equals(email)) {
             throw new TokenEmailDoesNotMatchException();
         }
 
-        if (user.getEnabled()) {
+        // Conditional update: of two concurrent verifications only one enables the user
+        if (userRepository.enable(stored.getUserId()) == 0) {
             return AuthResponse.builder()
                     .success(true)
                     .message("Email already verified")
                     .build();
         }
+        userCache.invalidate(stored.getUserId(), email);
+        readYourWrites.recordWrite(stored.getUserId(), email);
+        verificationTokenService.deleteForUser(stored.getUserId());
+        resendCoalescer.forget(email);
 
-        user.setEnabled(true);
-        user.setVerificationToken(null);
-        userRepository.save(user);
+        UserProfile user = userRepository.findProfileById(stored.getUserId())
+                .orElseThrow(InvalidVerificationTokenException::new);
 
-        try {
-            emailService.sendWelcomeEmail(user.getEmail(), user.getUsername());
-        } catch (Exception e) {
-            System.err.println("Error sending welcome message " + e.getMessage());
-        }
+        emailOutboxService.queueWelcomeEmail(user.email(), user.username());
 
         return AuthResponse.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
+                .id(user.id())
+                .username(user.username())
+                .email(user.email())
+                .firstName(user.firstName())
+                .lastName(user.lastName())
                 .success(true)
                 .message("Email verified successfully")
                 .build();
     }
 
+    /**
+     * Revokes the session token so it stops working before it expires, along with its refresh tokens
+     */
+    public void logout(String token, String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verifyToken(token);
+        } catch (io.jsonwebtoken.JwtException | IllegalArgumentException e) {
+            return; // invalid or expired, it can't be used anyway
+        }
+        tokenRevocationService.revoke(verified.id(), verified.expiration());
+    }
+
     public AuthResponse getUserByEmail(String email) {
-        User user = userRepository.findByEmail(email)
+        UserProfile user = userCache.byEmail(email,
+                        key -> readYourWrites.read(key, () -> userRepository.findProfileByEmail(key)))
                 .orElse(null);
 
         if (user == null) {
@@ -169,17 +243,27 @@ public class AuthService {
         }
 
         return AuthResponse.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .role(user.getRole().name())
+                .id(user.id())
+                .username(user.username())
+                .email(user.email())
+                .firstName(user.firstName())
+                .lastName(user.lastName())
+                .role(user.role().name())
                 .success(true)
                 .build();
     }
 
+    /**
+     * Repeats within the resend cooldown reuse the pending token and queued email
+     * instead of minting and sending new ones
+     */
+    @Transactional
     public AuthResponse resendVerificationEmail(String email) {
+        // Answered from memory: no user lookup, no token, no email
+        if (resendCoalescer.isCoolingDown(email)) {
+            return verificationEmailSent();
+        }
+
         User user = userRepository.findByEmail(email)
                 .orElse(null);
 
@@ -197,27 +281,37 @@ public class AuthService {
                     .build();
         }
 
-        // Generate new verification token
-        String verificationToken = jwtService.generateVerificationToken(email);
-        user.setVerificationToken(verificationToken);
-        userRepository.save(user);
+        Instant lastIssuedAt = verificationTokenService.lastIssuedAt(user.getId()).orElse(null);
+        resendCoalescer.resendIfCold(email, lastIssuedAt, () -> {
+            // Generate new verification token, replacing the previous one
+            String verificationToken = verificationTokenService.issue(user.getId(), user.getEmail());
 
-        try {
-            emailService.sendVerificationEmail(
+            emailOutboxService.queueVerificationEmail(
                     user.getEmail(),
                     user.getUsername(),
                     verificationToken
             );
-        } catch (Exception e) {
-            return AuthResponse.builder()
-                    .success(false)
-                    .message("Error sending verification email")
-                    .build();
+        });
+
+        return verificationEmailSent();
+    }
+
+    private static RuntimeException registrationConflict(DataIntegrityViolationException e) {
+        String constraint = ConstraintViolations.violatedConstraint(e);
+        if (constraint.contains("uk_users_username")) {
+            return new UsernameAlreadyExistsException();
+        }
+        if (constraint.contains("uk_users_email")) {
+            return new EmailAlreadyRegisteredException();
         }
+        return e;
+    }
 
+    private static AuthResponse verificationEmailSent() {
         return AuthResponse.builder()
                 .success(true)
                 .message("Verification email sent successfully")
                 .build();
     }
+
 }
@@ -0,0 +1,26 @@
+package com.cristian.backend.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells which unique constraint an insert violated, by its stable name (uk_users_username, ...)
+ */
+final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    // Constraint name as reported by Hibernate, falling back to the driver's message (lower case)
+    static String violatedConstraint(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null ? message.toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,78 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.model.OutboxEmail;
+import com.cristian.backend.repository.OutboxEmailRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+/**
+ * Queues emails in the outbox table instead of sending them.
+ * <p>
+ * The row is written in the caller's transaction, so the email exists if and only if the user
+ * change that triggered it was committed. {@link EmailOutboxWorker} delivers it afterwards.
+ * Sent and dead emails are deleted once they are older than the retention.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxService {
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${email.outbox.retention-ms:604800000}")
+    private long retentionMs;
+
+    @Value("${email.outbox.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public OutboxEmail enqueue(String to, String subject, RenderedEmail email, OutboxEmail.Priority priority) {
+        Instant now = Instant.now();
+        return outboxEmailRepository.save(OutboxEmail.builder()
+                .recipient(to)
+                .subject(subject)
+                .htmlBody(email.html())
+                .textBody(email.text())
+                .priority(priority)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    public void queueVerificationEmail(String email, String username, String verificationToken) {
+        enqueue(email, EmailService.VERIFICATION_SUBJECT, emailService.renderVerificationEmail(username, verificationToken),
+                OutboxEmail.Priority.HIGH);
+    }
+
+    public void queueWelcomeEmail(String email, String username) {
+        enqueue(email, EmailService.WELCOME_SUBJECT, emailService.renderWelcomeEmail(username),
+                OutboxEmail.Priority.NORMAL);
+    }
+
+    /**
+     * Deletes sent and dead emails past the retention in batches, one short transaction per batch
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.cleanup-interval-ms:3600000}")
+    public void deleteFinished() {
+        Instant cutoff = Instant.now().minusMillis(retentionMs);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> outboxEmailRepository.deleteFinished(cutoff, cleanupBatchSize));
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            log.info("Deleted {} sent or dead outbox email(s)", total);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.model.OutboxEmail;
+import com.cristian.backend.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the email outbox in batches on a small pool of delivery workers.
+ * <p>
+ * Delivery is at-least-once: claiming a batch only pushes each email's next attempt past the
+ * lease, so an email whose worker died before recording the result is picked up again. Failed
+ * deliveries are retried with exponential backoff and jitter, and are marked DEAD after the
+ * maximum number of attempts.
+ * <p>
+ * Each batch is sent lane by lane (verification emails before welcome emails), in chunks of
+ * {@code messagesPerConnection} that go over a single SMTP connection, at the rate allowed by
+ * {@link SmtpRateLimiter}. Emails that could not get a send permit are released without using up
+ * an attempt.
+ * <p>
+ * The outbox is polled on its own thread rather than on Spring's shared scheduler, so a backlog
+ * of slow SMTP deliveries never holds up the other scheduled jobs (token revocation sync,
+ * cleanups), and a single {@link #drain()} stops claiming new batches after {@code maxDrain}.
+ */
+@Component
+@Slf4j
+public class EmailOutboxWorker {
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final EmailService emailService;
+    private final SmtpRateLimiter rateLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService poller;
+    private final long pollIntervalMs;
+    private final long maxDrainNanos;
+    private final int batchSize;
+    private final int messagesPerConnection;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+    private final Map<OutboxEmail.Priority, Timer> queueAge = new EnumMap<>(OutboxEmail.Priority.class);
+
+    public EmailOutboxWorker(
+            OutboxEmailRepository outboxEmailRepository,
+            EmailService emailService,
+            SmtpRateLimiter rateLimiter,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${email.outbox.workers:4}") int workerCount,
+            @Value("${email.outbox.batch-size:50}") int batchSize,
+            @Value("${email.outbox.messages-per-connection:10}") int messagesPerConnection,
+            @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${email.outbox.lease-ms:300000}") long leaseMs,
+            @Value("${email.outbox.initial-backoff-ms:10000}") long initialBackoffMs,
+            @Value("${email.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+            @Value("${email.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+            @Value("${email.outbox.max-drain-ms:30000}") long maxDrainMs
+    ) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.emailService = emailService;
+        this.rateLimiter = rateLimiter;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.messagesPerConnection = messagesPerConnection;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxDrainNanos = TimeUnit.MILLISECONDS.toNanos(maxDrainMs);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sent = Counter.builder("email.outbox.delivered").tag("result", "sent").register(meterRegistry);
+        this.retried = Counter.builder("email.outbox.delivered").tag("result", "retry").register(meterRegistry);
+        this.dead = Counter.builder("email.outbox.delivered").tag("result", "dead").register(meterRegistry);
+        for (OutboxEmail.Priority priority : OutboxEmail.Priority.values()) {
+            queueAge.put(priority, Timer.builder("email.outbox.queue.age")
+                    .description("Time from enqueue to successful delivery")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        // An exception escaping here would cancel the schedule
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.error("Email outbox drain failed", e);
+        }
+    }
+
+    /**
+     * Delivers due emails until the outbox has no full batch left, the provider's rate is used up
+     * or {@code maxDrain} has passed
+     */
+    public void drain() {
+        long deadline = System.nanoTime() + maxDrainNanos;
+        List<OutboxEmail> batch;
+        AtomicBoolean throttled = new AtomicBoolean();
+        do {
+            batch = claim();
+            if (batch.isEmpty()) {
+                return;
+            }
+            // Lanes in priority order: welcome emails only get the permits verification emails left over
+            for (List<OutboxEmail> lane : lanes(batch)) {
+                if (throttled.get()) {
+                    // No permits left: hand the lane back instead of having each chunk wait for one
+                    release(lane);
+                    continue;
+                }
+                List<Callable<Void>> deliveries = new ArrayList<>();
+                for (int from = 0; from < lane.size(); from += messagesPerConnection) {
+                    List<OutboxEmail> chunk = lane.subList(from, Math.min(from + messagesPerConnection, lane.size()));
+                    deliveries.add(() -> {
+                        if (!deliver(chunk)) {
+                            throttled.set(true);
+                        }
+                        return null;
+                    });
+                }
+                try {
+                    workers.invokeAll(deliveries);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        } while (batch.size() == batchSize && !throttled.get() && System.nanoTime() - deadline < 0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private List<OutboxEmail> claim() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxEmail> due = outboxEmailRepository.findDue(now, PageRequest.of(0, batchSize));
+            for (OutboxEmail email : due) {
+                email.setAttempts(email.getAttempts() + 1);
+                email.setNextAttemptAt(now.plus(lease));
+            }
+            return due;
+        });
+    }
+
+    private static Collection<List<OutboxEmail>> lanes(List<OutboxEmail> batch) {
+        Map<OutboxEmail.Priority, List<OutboxEmail>> lanes = new EnumMap<>(OutboxEmail.Priority.class);
+        for (OutboxEmail email : batch) {
+            lanes.computeIfAbsent(email.getPriority(), priority -> new ArrayList<>()).add(email);
+        }
+        return lanes.values();
+    }
+
+    /**
+     * Sends the emails as permits become available
+     *
+     * @return false if the rest had to be released because the provider's rate was used up
+     */
+    boolean deliver(List<OutboxEmail> emails) throws InterruptedException {
+        int next = 0;
+        while (next < emails.size()) {
+            int permits = rateLimiter.acquire(emails.size() - next);
+            if (permits == 0) {
+                release(emails.subList(next, emails.size()));
+                return false;
+            }
+            send(emails.subList(next, next + permits));
+            next += permits;
+        }
+        return true;
+    }
+
+    private void send(List<OutboxEmail> emails) {
+        List<OutboxEmail> sendable = new ArrayList<>(emails.size());
+        List<MimeMessage> messages = new ArrayList<>(emails.size());
+        for (OutboxEmail email : emails) {
+            try {
+                messages.add(emailService.createMessage(email.getRecipient(), email.getSubject(),
+                        new RenderedEmail(email.getHtmlBody(), email.getTextBody())));
+                sendable.add(email);
+            } catch (Exception e) {
+                failed(email, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures;
+        try {
+            emailService.send(messages);
+            failures = Map.of();
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+        } catch (Exception e) {
+            failures = allFailed(messages, e);
+        }
+
+        if (failures.values().stream().anyMatch(SmtpRateLimiter::isThrottling)) {
+            rateLimiter.throttledByProvider();
+        }
+        for (int i = 0; i < sendable.size(); i++) {
+            Exception failure = failures.get(messages.get(i));
+            if (failure != null) {
+                failed(sendable.get(i), failure);
+            } else {
+                delivered(sendable.get(i));
+            }
+        }
+    }
+
+    private static Map<Object, Exception> allFailed(List<MimeMessage> messages, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        messages.forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private void delivered(OutboxEmail email) {
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> outboxEmailRepository.markSent(email.getId(), now));
+        sent.increment();
+        queueAge.get(email.getPriority()).record(Duration.between(email.getCreatedAt(), now));
+    }
+
+    private void release(List<OutboxEmail> emails) {
+        List<Long> ids = emails.stream().map(OutboxEmail::getId).toList();
+        log.debug("SMTP send rate for {} used up, releasing {} email(s)", rateLimiter.getProvider(), ids.size());
+        transactionTemplate.executeWithoutResult(status -> outboxEmailRepository.release(ids, Instant.now()));
+    }
+
+    private void failed(OutboxEmail email, Exception e) {
+        String error = errorMessage(e);
+        if (email.getAttempts() >= maxAttempts) {
+            log.error("Giving up on email {} to {} after {} attempt(s): {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), error);
+            transactionTemplate.executeWithoutResult(status -> outboxEmailRepository.markDead(email.getId(), error));
+            dead.increment();
+            return;
+        }
+
+        Instant nextAttempt = Instant.now().plus(backoff(email.getAttempts()));
+        log.warn("Email {} to {} failed (attempt {}), retrying at {}: {}",
+                email.getId(), email.getRecipient(), email.getAttempts(), nextAttempt, error);
+        transactionTemplate.executeWithoutResult(status -> outboxEmailRepository.reschedule(email.getId(), nextAttempt, error));
+        retried.increment();
+    }
+
+    // initialBackoff * 2^(attempts - 1), capped, with +-20% jitter so failed batches don't retry in lockstep
+    Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (capped * jitter));
+    }
+
+    private static String errorMessage(Exception e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root.getClass().getSimpleName() + ": " + root.getMessage();
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,134 @@
+package com.cristian.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Email template parsed once into literal segments and {@code {{name}}} placeholders.
+ * <p>
+ * Literal segments are kept as UTF-8 bytes, so rendering only encodes the placeholder values
+ * (each distinct value once, however often it appears) and copies everything into a single
+ * exactly-sized array. Values are HTML-escaped in HTML templates.
+ */
+public final class EmailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    // literals[i] comes before placeholders[i]; the last literal comes after the last placeholder
+    private final byte[][] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+    private final boolean html;
+
+    private EmailTemplate(List<byte[]> literals, List<String> placeholders, boolean html) {
+        this.literals = literals.toArray(new byte[0][]);
+        this.placeholders = placeholders.toArray(new String[0]);
+        this.html = html;
+        int length = 0;
+        for (byte[] literal : this.literals) {
+            length += literal.length;
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses the template source
+     *
+     * @param html whether values must be HTML-escaped
+     */
+    public static EmailTemplate parse(String source, boolean html) {
+        List<byte[]> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, position)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder at offset " + open);
+            }
+            literals.add(source.substring(position, open).getBytes(StandardCharsets.UTF_8));
+            placeholders.add(name);
+            position = close + CLOSE.length();
+        }
+        literals.add(source.substring(position).getBytes(StandardCharsets.UTF_8));
+        return new EmailTemplate(literals, placeholders, html);
+    }
+
+    /**
+     * Renders the template as UTF-8
+     *
+     * @throws IllegalArgumentException if a placeholder has no value
+     */
+    public byte[] render(Map<String, String> values) {
+        Map<String, byte[]> encoded = new HashMap<>(4);
+        byte[][] parts = new byte[placeholders.length][];
+        int size = literalLength;
+        for (int i = 0; i < placeholders.length; i++) {
+            parts[i] = encoded.computeIfAbsent(placeholders[i], name -> encode(name, values.get(name)));
+            size += parts[i].length;
+        }
+
+        byte[] out = new byte[size];
+        int offset = 0;
+        for (int i = 0; i < placeholders.length; i++) {
+            System.arraycopy(literals[i], 0, out, offset, literals[i].length);
+            offset += literals[i].length;
+            System.arraycopy(parts[i], 0, out, offset, parts[i].length);
+            offset += parts[i].length;
+        }
+        byte[] last = literals[literals.length - 1];
+        System.arraycopy(last, 0, out, offset, last.length);
+        return out;
+    }
+
+    public Set<String> placeholders() {
+        return new LinkedHashSet<>(List.of(placeholders));
+    }
+
+    public boolean isHtml() {
+        return html;
+    }
+
+    private byte[] encode(String name, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("No value for placeholder: " + name);
+        }
+        return (html ? escapeHtml(value) : value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String escapeHtml(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String entity = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (entity != null) {
+                    escaped.append(entity);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+}
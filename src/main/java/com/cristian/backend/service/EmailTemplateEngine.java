@@ -0,0 +1,114 @@
+package com.cristian.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads {@code <name>.html} and {@code <name>.txt} email templates from {@code email.templates.location}
+ * and keeps them parsed in memory.
+ * <p>
+ * With {@code email.templates.reload-interval-ms} > 0 the template files are checked for changes at most
+ * that often and re-parsed when modified, so templates can be edited without a restart (point the
+ * location at a directory, e.g. {@code file:/etc/auth-api/templates/}). A template that fails to
+ * parse keeps the previous version.
+ */
+@Component
+@Slf4j
+public class EmailTemplateEngine {
+
+    static final List<String> TEMPLATES = List.of("verification", "welcome");
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final long reloadIntervalMs;
+    private final Map<String, LoadedTemplate> templates = new ConcurrentHashMap<>();
+
+    private record LoadedTemplate(EmailTemplate template, long lastModified, long checkedAt) {
+    }
+
+    public EmailTemplateEngine(
+            ResourceLoader resourceLoader,
+            @Value("${email.templates.location:classpath:templates/email/}") String location,
+            @Value("${email.templates.reload-interval-ms:0}") long reloadIntervalMs
+    ) {
+        this.resourceLoader = resourceLoader;
+        this.location = location.endsWith("/") ? location : location + "/";
+        this.reloadIntervalMs = reloadIntervalMs;
+    }
+
+    @PostConstruct
+    void preload() {
+        for (String name : TEMPLATES) {
+            template(name + ".html");
+            template(name + ".txt");
+        }
+        log.info("Loaded {} email template(s) from {}", templates.size(), location);
+    }
+
+    /**
+     * Renders the HTML and plain-text versions of a template
+     */
+    public RenderedEmail render(String name, Map<String, String> values) {
+        return new RenderedEmail(template(name + ".html").render(values), template(name + ".txt").render(values));
+    }
+
+    EmailTemplate template(String file) {
+        LoadedTemplate loaded = templates.get(file);
+        if (loaded == null) {
+            loaded = templates.computeIfAbsent(file, this::load);
+        } else if (reloadIntervalMs > 0 && System.currentTimeMillis() - loaded.checkedAt() >= reloadIntervalMs) {
+            loaded = reloadIfModified(file, loaded);
+        }
+        return loaded.template();
+    }
+
+    private LoadedTemplate reloadIfModified(String file, LoadedTemplate current) {
+        long now = System.currentTimeMillis();
+        LoadedTemplate next;
+        try {
+            Resource resource = resourceLoader.getResource(location + file);
+            next = lastModified(resource) != current.lastModified()
+                    ? load(file)
+                    : new LoadedTemplate(current.template(), current.lastModified(), now);
+            if (next.template() != current.template()) {
+                log.info("Reloaded email template {}", file);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not reload email template {}, keeping the previous version: {}", file, e.getMessage());
+            next = new LoadedTemplate(current.template(), current.lastModified(), now);
+        }
+        templates.put(file, next);
+        return next;
+    }
+
+    private LoadedTemplate load(String file) {
+        Resource resource = resourceLoader.getResource(location + file);
+        try (InputStream in = resource.getInputStream()) {
+            String source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return new LoadedTemplate(EmailTemplate.parse(source, file.endsWith(".html")),
+                    lastModified(resource), System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Email template not found: " + location + file, e);
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.cristian.backend.service;
+
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link JavaMailSenderImpl} that keeps a bounded pool of connected (and authenticated) SMTP
+ * transports instead of opening one per {@code send}.
+ * <p>
+ * At most {@code maxConnections} connections are in use at once; callers wait up to
+ * {@code borrowTimeout} for one. A connection is closed after {@code maxMessagesPerConnection}
+ * messages, after {@code maxIdle} without use, or when a send fails on it. Connections idle for
+ * more than {@code validateAfterIdle} are checked with a NOOP before being reused.
+ */
+@Slf4j
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    private final int maxConnections;
+    private final int maxMessagesPerConnection;
+    private final long maxIdleNanos;
+    private final long validateAfterIdleNanos;
+    private final Duration borrowTimeout;
+
+    private final Semaphore permits;
+    // Most recently used first, so the oldest (first to expire) are at the tail
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicLong opened = new AtomicLong();
+    private volatile boolean shutdown;
+
+    public PooledJavaMailSender(
+            int maxConnections,
+            int maxMessagesPerConnection,
+            Duration maxIdle,
+            Duration validateAfterIdle,
+            Duration borrowTimeout
+    ) {
+        this.maxConnections = maxConnections;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.validateAfterIdleNanos = validateAfterIdle.toNanos();
+        this.borrowTimeout = borrowTimeout;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+
+        PooledConnection connection;
+        try {
+            connection = borrow();
+        } catch (AuthenticationFailedException ex) {
+            throw new MailAuthenticationException(ex);
+        } catch (Exception ex) {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                failedMessages.put(original(mimeMessages, originalMessages, i), ex);
+            }
+            throw new MailSendException("Mail server connection failed", ex, failedMessages);
+        }
+
+        boolean broken = false;
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                Object original = original(mimeMessages, originalMessages, i);
+                if (broken) {
+                    failedMessages.put(original, new MessagingException("SMTP connection failed on a previous message"));
+                    continue;
+                }
+                try {
+                    send(connection, mimeMessages[i]);
+                } catch (Exception ex) {
+                    failedMessages.put(original, ex);
+                    // A rejected recipient leaves the session usable, anything else may not
+                    broken = !(ex instanceof SendFailedException);
+                }
+            }
+        } finally {
+            release(connection, broken);
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    /**
+     * Closes every idle connection; connections in use are closed when they are returned
+     */
+    @Override
+    public void destroy() {
+        shutdown = true;
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getActiveConnections() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public long getOpenedConnections() {
+        return opened.get();
+    }
+
+    private void send(PooledConnection connection, MimeMessage mimeMessage) throws MessagingException {
+        // Same preparation as JavaMailSenderImpl
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            mimeMessage.setHeader("Message-ID", messageId);
+        }
+        Address[] addresses = mimeMessage.getAllRecipients();
+        connection.transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+        connection.messagesSent++;
+    }
+
+    private PooledConnection borrow() throws MessagingException, InterruptedException {
+        if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new MessagingException("No SMTP connection available within " + borrowTimeout);
+        }
+        try {
+            PooledConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (isReusable(connection)) {
+                    return connection;
+                }
+                close(connection);
+            }
+            return open();
+        } catch (MessagingException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void release(PooledConnection connection, boolean broken) {
+        try {
+            if (broken || shutdown || connection.messagesSent >= maxMessagesPerConnection) {
+                close(connection);
+            } else {
+                connection.lastUsed = System.nanoTime();
+                idle.offerFirst(connection);
+                evictExpired();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isReusable(PooledConnection connection) {
+        long idleFor = System.nanoTime() - connection.lastUsed;
+        if (idleFor > maxIdleNanos) {
+            return false;
+        }
+        // isConnected() sends a NOOP, only worth it when the server may have dropped us
+        return idleFor < validateAfterIdleNanos || connection.transport.isConnected();
+    }
+
+    private void evictExpired() {
+        PooledConnection oldest;
+        while ((oldest = idle.peekLast()) != null && System.nanoTime() - oldest.lastUsed > maxIdleNanos) {
+            if (idle.removeLastOccurrence(oldest)) {
+                close(oldest);
+            }
+        }
+    }
+
+    private PooledConnection open() throws MessagingException {
+        Transport transport = connectTransport();
+        long count = opened.incrementAndGet();
+        log.debug("Opened SMTP connection #{} to {}:{}", count, getHost(), getPort());
+        return new PooledConnection(transport);
+    }
+
+    private void close(PooledConnection connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException ex) {
+            log.debug("Error closing SMTP connection: {}", ex.getMessage());
+        }
+    }
+
+    private static Object original(MimeMessage[] mimeMessages, Object[] originalMessages, int i) {
+        return originalMessages != null ? originalMessages[i] : mimeMessages[i];
+    }
+
+    private static final class PooledConnection {
+
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsed = System.nanoTime();
+
+        private PooledConnection(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
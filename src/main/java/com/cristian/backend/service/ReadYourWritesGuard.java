@@ -0,0 +1,75 @@
+package com.cristian.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Keeps reads of a recently written user on the primary database.
+ * <p>
+ * Read-only transactions go to the replicas, which may lag behind. For a short window after a
+ * user is written (its id, email or username recorded with {@link #recordWrite(Object...)}),
+ * reads for that user run pinned to the primary, so e.g. a login right after verifying the
+ * email never sees the account disabled.
+ */
+@Component
+public class ReadYourWritesGuard {
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final Cache<Object, Boolean> recentWrites;
+
+    public ReadYourWritesGuard(@Value("${app.datasource.read-your-writes-ms:5000}") long windowMs) {
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * Whether the current thread must read from the primary (checked by the routing DataSource)
+     */
+    public static boolean isPrimaryPinned() {
+        return PRIMARY_PINNED.get();
+    }
+
+    /**
+     * Records that the user identified by these keys was just written
+     */
+    public void recordWrite(Object... keys) {
+        for (Object key : keys) {
+            if (key != null) {
+                recentWrites.put(key, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code read} on the primary if {@code key} was written within the window, otherwise as is
+     */
+    public <T> T read(Object key, Supplier<T> read) {
+        if (key == null || recentWrites.getIfPresent(key) == null) {
+            return read.get();
+        }
+        return readFromPrimary(read);
+    }
+
+    /**
+     * Runs {@code read} on the primary, for reads that must see a write made moments ago
+     */
+    public <T> T readFromPrimary(Supplier<T> read) {
+        if (isPrimaryPinned()) {
+            return read.get();
+        }
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_PINNED.remove();
+        }
+    }
+}
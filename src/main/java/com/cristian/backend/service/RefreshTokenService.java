@@ -0,0 +1,116 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.exception.InvalidRefreshTokenException;
+import com.cristian.backend.model.RefreshToken;
+import com.cristian.backend.repository.RefreshTokenRepository;
+import com.cristian.backend.security.TokenHashing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque, rotating refresh tokens.
+ * <p>
+ * A refresh token can be exchanged exactly once for a new access token and a new refresh token,
+ * with no password check. Only its SHA-256 is stored, so exchanging one is a single indexed lookup.
+ * Presenting an already exchanged token means it was copied: the whole family (every token
+ * descending from the same login) is revoked and the user has to log in again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh.expiration:2592000000}")
+    private long refreshExpiration;
+
+    /**
+     * Result of exchanging a refresh token
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+
+    /**
+     * Issues the first refresh token of a new login
+     */
+    @Transactional
+    public String issue(Long userId) {
+        return create(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one of the same family
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new InvalidRefreshTokenException();
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHash(TokenHashing.sha256Hex(rawToken))
+                .orElseThrow(InvalidRefreshTokenException::new);
+
+        if (current.getRevoked() || current.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException();
+        }
+        // Conditional update: of two concurrent exchanges of the same token only one wins
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), Instant.now()) == 0) {
+            log.warn("Refresh token reuse detected for user {}, revoking token family {}",
+                    current.getUserId(), current.getFamilyId());
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            throw new InvalidRefreshTokenException();
+        }
+
+        return new Rotation(current.getUserId(), create(current.getUserId(), current.getFamilyId()));
+    }
+
+    /**
+     * Revokes the token and every token rotated from the same login
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(TokenHashing.sha256Hex(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh token(s)", deleted);
+        }
+    }
+
+    private String create(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(TokenHashing.sha256Hex(rawToken))
+                .familyId(familyId)
+                .userId(userId)
+                .expiresAt(Instant.now().plusMillis(refreshExpiration))
+                .build());
+        return rawToken;
+    }
+}
@@ -0,0 +1,7 @@
+package com.cristian.backend.service;
+
+/**
+ * UTF-8 bodies of an email: the HTML part and its plain-text alternative
+ */
+public record RenderedEmail(byte[] html, byte[] text) {
+}
@@ -0,0 +1,165 @@
+package com.cristian.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the send rate to the SMTP provider with a token bucket, so a signup spike is spread out
+ * instead of being rejected by the provider.
+ * <p>
+ * Limits are configured per provider ({@code gmail}, {@code mailtrap}, or the SMTP host). When the
+ * provider answers with a throttling reply anyway, the bucket is paused for {@code providerBackoff}.
+ */
+@Slf4j
+public class SmtpRateLimiter {
+
+    // 421 service not available / too many connections, 450 (Gmail 4.2.1 rate limit), 454 try again later
+    private static final Set<Integer> THROTTLING_REPLY_CODES = Set.of(421, 450, 454);
+
+    private final String provider;
+    private final TokenBucket bucket;
+    private final long maxWaitNanos;
+    private final Duration providerBackoff;
+    private final Counter throttledLocally;
+    private final Counter throttledByProvider;
+
+    public SmtpRateLimiter(
+            String provider,
+            double permitsPerSecond,
+            int burst,
+            Duration maxWait,
+            Duration providerBackoff,
+            MeterRegistry meterRegistry
+    ) {
+        this(provider, permitsPerSecond, burst, maxWait, providerBackoff, meterRegistry, System::nanoTime);
+    }
+
+    SmtpRateLimiter(
+            String provider,
+            double permitsPerSecond,
+            int burst,
+            Duration maxWait,
+            Duration providerBackoff,
+            MeterRegistry meterRegistry,
+            LongSupplier nanoClock
+    ) {
+        this.provider = provider;
+        this.bucket = new TokenBucket(permitsPerSecond, burst, nanoClock);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.providerBackoff = providerBackoff;
+
+        this.throttledLocally = Counter.builder("email.ratelimit.throttled")
+                .description("Sends held back because the provider's send rate was used up")
+                .tag("provider", provider)
+                .tag("reason", "local")
+                .register(meterRegistry);
+        this.throttledByProvider = Counter.builder("email.ratelimit.throttled")
+                .description("Throttling replies from the SMTP provider")
+                .tag("provider", provider)
+                .tag("reason", "provider")
+                .register(meterRegistry);
+        Gauge.builder("email.ratelimit.tokens", bucket, TokenBucket::availableTokens)
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Provider name used for limits and metrics: well-known providers by name, anything else by host
+     */
+    public static String providerOf(String host) {
+        if (host == null || host.isBlank()) {
+            return "default";
+        }
+        String normalized = host.toLowerCase(Locale.ROOT);
+        if (normalized.contains("gmail") || normalized.endsWith("google.com")) {
+            return "gmail";
+        }
+        if (normalized.contains("mailtrap")) {
+            return "mailtrap";
+        }
+        return normalized;
+    }
+
+    /**
+     * True when the failure is the provider asking us to slow down (rather than a bad message)
+     */
+    public static boolean isThrottling(Throwable failure) {
+        // MessagingException.getCause() is the next (chained) exception, e.g. the per-recipient SMTP replies
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() != cause ? cause.getCause() : null) {
+            if (THROTTLING_REPLY_CODES.contains(replyCode(cause))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    /**
+     * Takes up to {@code wanted} send permits, waiting up to the configured maximum for the first one
+     *
+     * @return the number of permits taken, 0 if the provider's rate is used up for longer than the maximum wait
+     */
+    public int acquire(int wanted) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (true) {
+            int granted = bucket.tryAcquire(wanted);
+            if (granted > 0) {
+                return granted;
+            }
+            long wait = bucket.nanosUntilAvailable();
+            long remaining = deadline - System.nanoTime();
+            if (wait > remaining) {
+                throttledLocally.increment();
+                return 0;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(wait, 1));
+        }
+    }
+
+    /**
+     * Records a throttling reply from the provider and stops sending for a while
+     */
+    public void throttledByProvider() {
+        log.warn("SMTP provider {} is throttling us, pausing sends for {}", provider, providerBackoff);
+        throttledByProvider.increment();
+        bucket.pause(providerBackoff);
+    }
+
+    private static int replyCode(Throwable failure) {
+        if (failure instanceof SMTPSendFailedException e) {
+            return e.getReturnCode();
+        }
+        if (failure instanceof SMTPAddressFailedException e) {
+            return e.getReturnCode();
+        }
+        if (failure instanceof SMTPSenderFailedException e) {
+            return e.getReturnCode();
+        }
+        // Connect-time replies only come back as a message, e.g. "421 4.7.0 Try again later"
+        String message = failure.getMessage();
+        if (failure instanceof MessagingException && message != null && message.length() >= 4
+                && Character.isDigit(message.charAt(0)) && message.charAt(3) == ' ') {
+            try {
+                return Integer.parseInt(message.substring(0, 3));
+            } catch (NumberFormatException ignored) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,81 @@
+package com.cristian.backend.service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket: refills at {@code permitsPerSecond} up to {@code burst} tokens. Can be paused,
+ * which empties it and hands out nothing until the pause ends.
+ */
+final class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long refilledAt;
+    private long pausedUntil;
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.capacity = burst;
+        this.nanoClock = nanoClock;
+        this.tokens = burst;
+        this.refilledAt = nanoClock.getAsLong();
+        this.pausedUntil = refilledAt;
+    }
+
+    /**
+     * Takes up to {@code wanted} whole tokens without waiting
+     *
+     * @return the number of tokens taken, 0 if none is available
+     */
+    synchronized int tryAcquire(int wanted) {
+        long now = refill();
+        if (now - pausedUntil < 0) {
+            return 0;
+        }
+        int granted = (int) Math.min(wanted, Math.floor(tokens));
+        tokens -= granted;
+        return granted;
+    }
+
+    /**
+     * How long until at least one token is available
+     */
+    synchronized long nanosUntilAvailable() {
+        long now = refill();
+        long pause = Math.max(0, pausedUntil - now);
+        double missing = 1 - tokens;
+        long refillWait = missing <= 0 ? 0 : (long) Math.ceil(missing / permitsPerNano);
+        return Math.max(pause, refillWait);
+    }
+
+    synchronized void pause(Duration duration) {
+        long now = refill();
+        long until = now + duration.toNanos();
+        if (until - pausedUntil > 0) {
+            pausedUntil = until;
+        }
+        tokens = 0;
+    }
+
+    synchronized double availableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private long refill() {
+        long now = nanoClock.getAsLong();
+        long from = Math.max(refilledAt, pausedUntil);
+        if (now - from > 0) {
+            tokens = Math.min(capacity, tokens + (now - from) * permitsPerNano);
+        }
+        refilledAt = Math.max(refilledAt, now);
+        return now;
+    }
+}
@@ -0,0 +1,129 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.model.RevokedToken;
+import com.cristian.backend.repository.RevokedTokenRepository;
+import com.cristian.backend.security.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side token revocation by JWT id (jti).
+ * <p>
+ * Revocations are persisted with the token's expiry. Each node keeps them in memory behind
+ * a Bloom filter, so checking a token that was never revoked (almost every request) is a few
+ * hash probes with no map lookup and no database round trip. Entries from other nodes are
+ * picked up by a periodic sync, and expired ones are compacted away in the background.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    // Overlap between syncs so clock differences between nodes don't lose entries
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final Object filterLock = new Object();
+    private volatile BloomFilter filter;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public TokenRevocationService(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${jwt.revocation.expected-revocations:100000}") int expectedRevocations
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+    }
+
+    @PostConstruct
+    void load() {
+        sync();
+        log.info("Loaded {} revoked token(s)", revoked.size());
+    }
+
+    /**
+     * Checks if the token id has been revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes the token until it expires
+     */
+    @Transactional
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || expiresAt.isBefore(Instant.now())) {
+            return; // nothing to do, it can't be used anyway
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(tokenId)
+                .expiresAt(expiresAt)
+                .revokedAt(Instant.now())
+                .build());
+        remember(tokenId, expiresAt);
+    }
+
+    /**
+     * Picks up tokens revoked on other nodes
+     */
+    @Scheduled(
+            fixedDelayString = "${jwt.revocation.sync-interval-ms:30000}",
+            initialDelayString = "${jwt.revocation.sync-interval-ms:30000}"
+    )
+    public void sync() {
+        Instant now = Instant.now();
+        Instant since = lastSync.equals(Instant.EPOCH) ? Instant.EPOCH : lastSync.minus(SYNC_OVERLAP);
+        for (RevokedToken token : revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(since, now)) {
+            remember(token.getJti(), token.getExpiresAt());
+        }
+        lastSync = now;
+    }
+
+    /**
+     * Drops entries whose tokens have expired and rebuilds the Bloom filter without them
+     */
+    @Scheduled(
+            fixedDelayString = "${jwt.revocation.compaction-interval-ms:3600000}",
+            initialDelayString = "${jwt.revocation.compaction-interval-ms:3600000}"
+    )
+    @Transactional
+    public void compact() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        synchronized (filterLock) {
+            revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2), FALSE_POSITIVE_RATE);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+        log.info("Compacted revoked tokens: {} expired row(s) deleted, {} still active", deleted, revoked.size());
+    }
+
+    private void remember(String tokenId, Instant expiresAt) {
+        // Same lock as the rebuild so an entry can't be missed by a filter being swapped in
+        synchronized (filterLock) {
+            revoked.put(tokenId, expiresAt);
+            filter.put(tokenId);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.dto.UserProfile;
+import com.cristian.backend.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of user profiles for hot reads ({@code /me}, role lookups, refresh), keyed by email and by id.
+ * <p>
+ * Entries expire after a TTL; anything that changes a user must call {@link #invalidate(Long, String)}.
+ * Unknown users are not cached, so a new registration is visible right away.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<String, UserProfile> byEmail;
+    private final Cache<Long, UserProfile> byId;
+
+    public UserCache(
+            @Value("${user.cache.maximum-size:10000}") long maximumSize,
+            @Value("${user.cache.ttl-ms:300000}") long ttlMs,
+            MeterRegistry meterRegistry
+    ) {
+        this.byEmail = newCache(maximumSize, ttlMs);
+        this.byId = newCache(maximumSize, ttlMs);
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "users.by-email");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+    }
+
+    /**
+     * Cached profile for the email, loaded with {@code loader} on a miss
+     */
+    public Optional<UserProfile> byEmail(String email, Function<String, Optional<UserProfile>> loader) {
+        return Optional.ofNullable(byEmail.get(email, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Cached profile for the id, loaded with {@code loader} on a miss
+     */
+    public Optional<UserProfile> byId(Long id, Function<Long, Optional<UserProfile>> loader) {
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public void invalidate(User user) {
+        invalidate(user.getId(), user.getEmail());
+    }
+
+    /**
+     * Evicts the user now and, inside a transaction, again once it completes: a read that ran
+     * before the commit can't leave the old row cached
+     */
+    public void invalidate(Long id, String email) {
+        invalidateAll(id != null ? List.of(id) : List.of(), email != null ? List.of(email) : List.of());
+    }
+
+    /**
+     * Same as {@link #invalidate(Long, String)} for many users, in one pass over each cache
+     */
+    public void invalidateAll(Collection<Long> ids, Collection<String> emails) {
+        evict(ids, emails);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(ids, emails);
+                }
+            });
+        }
+    }
+
+    private void evict(Collection<Long> ids, Collection<String> emails) {
+        byId.invalidateAll(ids);
+        byEmail.invalidateAll(emails);
+    }
+
+    private static <K> Cache<K, UserProfile> newCache(long maximumSize, long ttlMs) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the admin user listing: the (created_at, id) of the last user returned, handed to
+ * clients as an opaque base64url string
+ */
+record UserCursor(long createdAt, long id) {
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + ":" + id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Parses a cursor from a previous page, null for the first page
+     */
+    static UserCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = decoded.indexOf(':');
+            if (separator < 0) {
+                throw new InvalidCursorException();
+            }
+            return new UserCursor(Long.parseLong(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or bad number (NumberFormatException is an IllegalArgumentException)
+            throw new InvalidCursorException();
+        }
+    }
+}
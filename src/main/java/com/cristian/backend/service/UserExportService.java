@@ -0,0 +1,123 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.dto.UserExportRow;
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.repository.UserExportRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes every user matching a filter as CSV or NDJSON, row by row as the cursor yields them.
+ * Only one row and the writer's buffer are held at a time.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserExportService {
+
+    static final String CSV_HEADER = "id,email,username,role,provider,enabled,created_at";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final UserExportRepository userExportRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * Writes the export to {@code out} and flushes it; {@code out} is left open.
+     * Read-only, so with replicas configured the export runs on one of them.
+     */
+    @Transactional(readOnly = true)
+    public void export(UserFilter filter, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            if (format == Format.CSV) {
+                writeCsv(filter, writer);
+            } else {
+                writeNdjson(filter, writer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(UserFilter filter, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        userExportRepository.forEach(filter, row -> {
+            try {
+                writer.write(String.valueOf(row.id()));
+                writer.write(',');
+                writer.write(csv(row.email()));
+                writer.write(',');
+                writer.write(csv(row.username()));
+                writer.write(',');
+                writer.write(row.role() != null ? row.role().name() : "");
+                writer.write(',');
+                writer.write(row.provider() != null ? row.provider().name() : "");
+                writer.write(',');
+                writer.write(String.valueOf(row.enabled()));
+                writer.write(',');
+                writer.write(String.valueOf(row.createdAt()));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeNdjson(UserFilter filter, Writer writer) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)) {
+            json.setRootValueSeparator(null);
+            userExportRepository.forEach(filter, row -> {
+                try {
+                    writeJson(json, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static void writeJson(JsonGenerator json, UserExportRow row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", row.id());
+        json.writeStringField("email", row.email());
+        json.writeStringField("username", row.username());
+        json.writeStringField("role", row.role() != null ? row.role().name() : null);
+        json.writeStringField("provider", row.provider() != null ? row.provider().name() : null);
+        json.writeBooleanField("enabled", row.enabled());
+        json.writeNumberField("createdAt", row.createdAt());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    /**
+     * Quotes a value that contains a separator, quote or line break (RFC 4180)
+     */
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,48 +1,235 @@
 package com.cristian.backend.service;
 
+import com.cristian.backend.config.DatabasePlatform;
+import com.cristian.backend.dto.RoleChangeResult;
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.dto.UserListItem;
+import com.cristian.backend.dto.UserPage;
+import com.cristian.backend.dto.UserSummary;
 import com.cristian.backend.model.User;
 import com.cristian.backend.repository.UserRepository;
 import com.cristian.backend.security.OAuthUser;
 import com.cristian.backend.exception.UserNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    static final int MAX_INSERT_ATTEMPTS = 3;
+
     private final UserRepository userRepository;
+    private final UsernameAllocator usernameAllocator;
+    private final UserCache userCache;
+    private final ReadYourWritesGuard readYourWrites;
+    private final DatabasePlatform databasePlatform;
+
+    @Value("${admin.users.max-page-size:200}")
+    private int maxPageSize = 200;
+
+    @Value("${admin.users.batch-chunk-size:500}")
+    private int batchChunkSize = 500;
 
+    /**
+     * Returns the user for a Google login, creating it on first sight. Returning users cost a single
+     * lookup by email; only a new email allocates a username and inserts, on PostgreSQL with an
+     * ON CONFLICT upsert, elsewhere (H2 in tests) resolving a concurrent insert of the same email by re-reading it.
+     * A username taken meanwhile by another node is retried with a fresh allocation.
+     */
     public User findOrCreateGoogleUser(OAuthUser oauthUser) {
+        String email = oauthUser.getEmail();
+        Optional<User> existing = readYourWrites.read(email, () -> userRepository.findByEmail(email));
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            User candidate = newGoogleUser(oauthUser);
+            try {
+                if (databasePlatform.isPostgreSQL()) {
+                    // A concurrent first login (or a replica that hasn't seen the row yet) hits the ON CONFLICT branch
+                    return recordWrite(userRepository.upsertGoogleUser(candidate.getUsername(), candidate.getEmail(),
+                            candidate.getFirstName(), candidate.getLastName(), candidate.getCreatedAt()));
+                }
+                return recordWrite(userRepository.save(candidate));
+            } catch (DataIntegrityViolationException e) {
+                // A duplicate callback inserted the same email first; a replica may not have it yet
+                Optional<User> inserted = readYourWrites.readFromPrimary(() -> userRepository.findByEmail(email));
+                if (inserted.isPresent()) {
+                    return inserted.get();
+                }
+                boolean usernameTaken = ConstraintViolations.violatedConstraint(e).contains("uk_users_username");
+                if (!usernameTaken || attempt >= MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+            } finally {
+                // Committed or not needed (the email already had an account), either way the reservation is done
+                usernameAllocator.release(candidate.getUsername());
+            }
+        }
+    }
+
+    private User recordWrite(User user) {
+        readYourWrites.recordWrite(user.getId(), user.getEmail(), user.getUsername());
+        return user;
+    }
+
+    private User newGoogleUser(OAuthUser oauthUser) {
+        User user = new User();
+        user.setUsername(usernameAllocator.allocate(
+                oauthUser.getFirstName(), oauthUser.getLastName(), oauthUser.getEmail()));
+        user.setEmail(oauthUser.getEmail());
+        user.setFirstName(oauthUser.getFirstName());
+        user.setLastName(oauthUser.getLastName());
+        user.setPassword(null);
+        user.setProvider(User.AuthProvider.GOOGLE);
+        user.setEnabled(true);
+        return user;
+    }
 
-        return userRepository.findByEmail(oauthUser.getEmail())
-                .orElseGet(() -> {
-                    User user = new User();
-                    //random username generation
-                    user.setUsername(oauthUser.getFirstName().toLowerCase() + "."
-                            + oauthUser.getLastName().toLowerCase() + System.currentTimeMillis() % 1000 );
-                    user.setEmail(oauthUser.getEmail());
-                    user.setFirstName(oauthUser.getFirstName());
-                    user.setLastName(oauthUser.getLastName());
-                    user.setPassword(null);
-                    user.setProvider(User.AuthProvider.GOOGLE);
-                    user.setEnabled(true);
-                    return userRepository.save(user);
-                });
-    }
-
-    public User changeUserRole(String email, User.Role newRole) {
-        User user = userRepository.findByEmail(email)
+    /**
+     * Changes the role with a single-column UPDATE; only the summary returned to the caller is read
+     */
+    @Transactional
+    public UserSummary changeUserRole(String email, User.Role newRole) {
+        UserSummary user = userRepository.findSummaryByEmail(email)
                 .orElseThrow(UserNotFoundException::new);
-        user.setRole(newRole);
-        return userRepository.save(user);
+        return updateRole(user, newRole);
     }
 
-    public User changeUserRoleById(Long userId, User.Role newRole) {
-        User user = userRepository.findById(userId)
+    @Transactional
+    public UserSummary changeUserRoleById(Long userId, User.Role newRole) {
+        UserSummary user = userRepository.findSummaryById(userId)
                 .orElseThrow(UserNotFoundException::new);
-        user.setRole(newRole);
-        return userRepository.save(user);
+        return updateRole(user, newRole);
+    }
+
+    /**
+     * Changes the role of many users in one transaction: per chunk, one SELECT ... FOR UPDATE to
+     * resolve the requested users and one set-based UPDATE. The rows stay locked until commit, so the
+     * reported statuses are what the UPDATE did even with concurrent role changes. One result per
+     * user, in request order (ids first); a user requested by id and by email is reported once.
+     */
+    @Transactional
+    public List<RoleChangeResult> changeUserRoles(List<Long> userIds, List<String> emails, User.Role newRole) {
+        List<Long> ids = distinct(userIds);
+        List<String> addresses = distinct(emails);
+
+        Map<Long, UserSummary> byId = new HashMap<>();
+        for (List<Long> chunk : chunks(ids)) {
+            userRepository.lockSummariesByIdIn(chunk).forEach(user -> byId.put(user.id(), user));
+        }
+        Map<String, UserSummary> byEmail = new HashMap<>();
+        for (List<String> chunk : chunks(addresses)) {
+            userRepository.lockSummariesByEmailIn(chunk).forEach(user -> byEmail.put(user.email(), user));
+        }
+
+        // Users found both by id and by email are updated once
+        Map<Long, UserSummary> found = new LinkedHashMap<>(byId);
+        byEmail.values().forEach(user -> found.putIfAbsent(user.id(), user));
+        List<Long> toUpdate = found.values().stream()
+                .filter(user -> user.role() != newRole)
+                .map(UserSummary::id)
+                .toList();
+        for (List<Long> chunk : chunks(toUpdate)) {
+            userRepository.updateRoles(chunk, newRole);
+        }
+
+        List<Long> changedIds = new ArrayList<>();
+        List<String> changedEmails = new ArrayList<>();
+        for (Long id : toUpdate) {
+            UserSummary user = found.get(id);
+            changedIds.add(user.id());
+            changedEmails.add(user.email());
+            readYourWrites.recordWrite(user.id(), user.email(), user.username());
+        }
+        userCache.invalidateAll(changedIds, changedEmails);
+
+        List<RoleChangeResult> results = new ArrayList<>(ids.size() + addresses.size());
+        Set<Long> reported = new HashSet<>();
+        for (Long id : ids) {
+            UserSummary user = byId.get(id);
+            if (user == null) {
+                results.add(new RoleChangeResult(id, null, RoleChangeResult.Status.NOT_FOUND));
+            } else if (reported.add(user.id())) {
+                results.add(result(user, newRole));
+            }
+        }
+        for (String email : addresses) {
+            UserSummary user = byEmail.get(email);
+            if (user == null) {
+                results.add(new RoleChangeResult(null, email, RoleChangeResult.Status.NOT_FOUND));
+            } else if (reported.add(user.id())) {
+                results.add(result(user, newRole));
+            }
+        }
+        return results;
+    }
+
+    private static RoleChangeResult result(UserSummary user, User.Role newRole) {
+        RoleChangeResult.Status status = user.role() == newRole
+                ? RoleChangeResult.Status.UNCHANGED
+                : RoleChangeResult.Status.UPDATED;
+        return new RoleChangeResult(user.id(), user.email(), status);
+    }
+
+    private <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += batchChunkSize) {
+            chunks.add(values.subList(from, Math.min(from + batchChunkSize, values.size())));
+        }
+        return chunks;
+    }
+
+    private static <T> List<T> distinct(List<T> values) {
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    private UserSummary updateRole(UserSummary user, User.Role newRole) {
+        userRepository.updateRole(user.id(), newRole);
+        userCache.invalidate(user.id(), user.email());
+        readYourWrites.recordWrite(user.id(), user.email(), user.username());
+        return user.withRole(newRole);
+    }
+
+    /**
+     * One page of users, newest first. The next page starts after the cursor of this one, so deep
+     * pages cost the same as the first; the total is only counted when asked for.
+     */
+    @Transactional(readOnly = true)
+    public UserPage listUsers(UserFilter filter, String cursor, int limit, boolean includeTotal) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        UserCursor after = UserCursor.decode(cursor);
+
+        // One extra row tells whether there is a next page
+        List<UserListItem> users = userRepository.findPage(filter,
+                after != null ? after.createdAt() : null, after != null ? after.id() : null, pageSize + 1);
+
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            UserListItem last = users.get(pageSize - 1);
+            nextCursor = new UserCursor(last.createdAt(), last.id()).encode();
+        }
+        Long total = includeTotal ? userRepository.countMatching(filter) : null;
+        return new UserPage(List.copyOf(users), nextCursor, total);
     }
 }
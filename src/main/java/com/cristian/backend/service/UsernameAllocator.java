@@ -0,0 +1,97 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.exception.UsernameUnavailableException;
+import com.cristian.backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Picks free usernames for accounts created from an identity provider.
+ * <p>
+ * Names are normalized to {@code first.last} and get the suffix after the highest one taken, read with a single
+ * range query on the unique index. Allocated names stay reserved in memory until {@link #release(String)}
+ * (or the TTL), so concurrent sign-ups on this node never pick the same one; another node can still take the
+ * same name first, which the caller sees as a {@code uk_users_username} violation.
+ */
+@Component
+public class UsernameAllocator {
+
+    static final int MAX_BASE_LENGTH = 32;
+    static final int MAX_ATTEMPTS = 100;
+    private static final String FALLBACK_BASE = "user";
+
+    private final UserRepository userRepository;
+    private final Cache<String, Boolean> reserved;
+
+    public UsernameAllocator(
+            UserRepository userRepository,
+            @Value("${auth.username.reservation-ttl-ms:60000}") long reservationTtlMs
+    ) {
+        this.userRepository = userRepository;
+        this.reserved = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(reservationTtlMs))
+                .build();
+    }
+
+    /**
+     * Reserves and returns a username that is not taken, based on the given names or the email
+     */
+    public String allocate(String firstName, String lastName, String email) {
+        String base = base(firstName, lastName, email);
+
+        // Digits sort before letters in byte order and in the usual collations alike
+        long suffix = userRepository.findMaxUsernameSuffix(base, base + "0", base + "a")
+                .map(max -> max + 1)
+                .orElse(0L);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++, suffix++) {
+            String candidate = suffix == 0 ? base : base + suffix;
+            if (reserved.asMap().putIfAbsent(candidate, Boolean.TRUE) == null) {
+                return candidate;
+            }
+        }
+        throw new UsernameUnavailableException(base);
+    }
+
+    /**
+     * Drops the reservation once the user row is committed, or when it was not used
+     */
+    public void release(String username) {
+        reserved.invalidate(username);
+    }
+
+    static String base(String firstName, String lastName, String email) {
+        String first = normalize(firstName);
+        String last = normalize(lastName);
+        String base;
+        if (!first.isEmpty() && !last.isEmpty()) {
+            base = first + "." + last;
+        } else if (!first.isEmpty() || !last.isEmpty()) {
+            base = first + last;
+        } else if (email != null && email.indexOf('@') > 0) {
+            base = normalize(email.substring(0, email.indexOf('@')));
+        } else {
+            base = "";
+        }
+        if (base.isEmpty()) {
+            return FALLBACK_BASE;
+        }
+        return base.length() > MAX_BASE_LENGTH ? base.substring(0, MAX_BASE_LENGTH) : base;
+    }
+
+    // Lower case ASCII letters and digits only, accents folded ("José" -> "jose")
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        return Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]", "");
+    }
+}
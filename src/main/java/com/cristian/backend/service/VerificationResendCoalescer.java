@@ -0,0 +1,192 @@
+package com.cristian.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-address cooldown for verification email resends.
+ * <p>
+ * The first resend for an address mints a token and queues an email; repeats within the cooldown
+ * reuse them and do nothing. Entries live in a lock-striped map (one lock and one map per stripe),
+ * so requests for different addresses rarely contend while two requests for the same address
+ * never both send. The persisted token's issue time is also honoured, so the cooldown survives
+ * restarts and applies across nodes.
+ */
+@Component
+public class VerificationResendCoalescer {
+
+    private final Duration cooldown;
+    private final Stripe[] stripes;
+    private final Counter queued;
+    private final Counter coalesced;
+
+    public VerificationResendCoalescer(
+            @Value("${email.resend.cooldown-ms:60000}") long cooldownMs,
+            @Value("${email.resend.stripes:64}") int stripeCount,
+            MeterRegistry meterRegistry
+    ) {
+        this.cooldown = Duration.ofMillis(cooldownMs);
+        // Power of two so the stripe is a mask of the hash
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.queued = Counter.builder("email.resend").tag("result", "queued").register(meterRegistry);
+        this.coalesced = Counter.builder("email.resend").tag("result", "coalesced").register(meterRegistry);
+    }
+
+    /**
+     * Whether a resend for this address happened within the cooldown (no database access)
+     */
+    public boolean isCoolingDown(String email) {
+        String key = key(email);
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            if (isFresh(stripe.sentAt.get(key), Instant.now())) {
+                coalesced.increment();
+                return true;
+            }
+            return false;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code resend} unless the address already got a verification email within the cooldown,
+     * either through this node or according to {@code persistedIssuedAt} (when the current
+     * verification token was issued). If the surrounding transaction rolls back, the resend is
+     * forgotten so the next request can try again.
+     *
+     * @return true if {@code resend} ran, false if the request was coalesced with the previous one
+     */
+    public boolean resendIfCold(String email, Instant persistedIssuedAt, Runnable resend) {
+        String key = key(email);
+        Stripe stripe = stripe(key);
+        Instant now = Instant.now();
+        stripe.lock.lock();
+        try {
+            Instant last = stripe.sentAt.get(key);
+            if (!isFresh(last, now) && isFresh(persistedIssuedAt, now)) {
+                last = persistedIssuedAt;
+                stripe.sentAt.put(key, last);
+            }
+            if (isFresh(last, now)) {
+                coalesced.increment();
+                return false;
+            }
+            // Claimed: a concurrent request for the address is coalesced from here on
+            stripe.sentAt.put(key, now);
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        // The resend does database work, so it runs without holding the stripe's lock
+        forgetOnRollback(key, now);
+        try {
+            resend.run();
+        } catch (RuntimeException | Error e) {
+            remove(key, now);
+            throw e;
+        }
+        queued.increment();
+        return true;
+    }
+
+    /**
+     * Drops the entry, e.g. once the address is verified
+     */
+    public void forget(String email) {
+        String key = key(email);
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            stripe.sentAt.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${email.resend.cooldown-ms:60000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.sentAt.values().removeIf(sentAt -> !isFresh(sentAt, now));
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.sentAt.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private void forgetOnRollback(String key, Instant sentAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    remove(key, sentAt);
+                }
+            }
+        });
+    }
+
+    private void remove(String key, Instant sentAt) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            stripe.sentAt.remove(key, sentAt);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private boolean isFresh(Instant sentAt, Instant now) {
+        return sentAt != null && sentAt.plus(cooldown).isAfter(now);
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Instant> sentAt = new HashMap<>();
+    }
+}
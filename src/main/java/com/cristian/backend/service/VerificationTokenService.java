@@ -0,0 +1,95 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.model.VerificationToken;
+import com.cristian.backend.repository.VerificationTokenRepository;
+import com.cristian.backend.security.JwtService;
+import com.cristian.backend.security.TokenHashing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Email verification tokens.
+ * <p>
+ * The token sent to the user is still a signed JWT, but it is looked up by its SHA-256 in the
+ * verification_tokens table instead of by comparing the whole JWT against a column of users.
+ * Issuing a new token for a user replaces the previous ones.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VerificationTokenService {
+
+    private final VerificationTokenRepository verificationTokenRepository;
+    private final JwtService jwtService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${jwt.verification.expiration}")
+    private long verificationExpiration;
+
+    @Value("${jwt.verification.cleanup-batch-size:1000}")
+    private int cleanupBatchSize;
+
+    /**
+     * Mints a verification token for the user, invalidating the previous ones
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public String issue(Long userId, String email) {
+        verificationTokenRepository.deleteByUserId(userId);
+
+        String token = jwtService.generateVerificationToken(email);
+        Instant now = Instant.now();
+        verificationTokenRepository.save(VerificationToken.builder()
+                .tokenHash(TokenHashing.sha256Hex(token))
+                .userId(userId)
+                .email(email)
+                .createdAt(now)
+                .expiresAt(now.plusMillis(verificationExpiration))
+                .build());
+        return token;
+    }
+
+    public Optional<VerificationToken> find(String token) {
+        return verificationTokenRepository.findById(TokenHashing.sha256Hex(token));
+    }
+
+    /**
+     * When the user's current token was issued, if it has not expired yet
+     */
+    public Optional<Instant> lastIssuedAt(Long userId) {
+        Instant now = Instant.now();
+        return verificationTokenRepository.findFirstByUserIdOrderByCreatedAtDesc(userId)
+                .filter(token -> token.getExpiresAt().isAfter(now))
+                .map(VerificationToken::getCreatedAt);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void deleteForUser(Long userId) {
+        verificationTokenRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Deletes expired tokens in batches, one short transaction per batch
+     */
+    @Scheduled(fixedDelayString = "${jwt.verification.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        Instant now = Instant.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> verificationTokenRepository.deleteExpired(now, cleanupBatchSize));
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            log.info("Deleted {} expired verification token(s)", total);
+        }
+    }
+}
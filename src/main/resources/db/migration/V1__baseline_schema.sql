@@ -0,0 +1,18 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update).
+-- IF NOT EXISTS so that databases created that way are adopted as they are (baseline version 0).
+
+CREATE TABLE IF NOT EXISTS users (
+    id                 BIGSERIAL PRIMARY KEY,
+    username           VARCHAR(255) NOT NULL,
+    email              VARCHAR(255) NOT NULL,
+    password           VARCHAR(255),
+    first_name         VARCHAR(255),
+    last_name          VARCHAR(255),
+    enabled            BOOLEAN      NOT NULL DEFAULT FALSE,
+    verification_token VARCHAR(255),
+    role               VARCHAR(255) CHECK (role IN ('USER', 'ADMIN')),
+    provider           VARCHAR(255) CHECK (provider IN ('LOCAL', 'GOOGLE')),
+    created_at         BIGINT,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
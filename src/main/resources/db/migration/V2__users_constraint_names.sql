@@ -0,0 +1,19 @@
+-- Hibernate named the unique constraints after a hash; give them stable names so they can be
+-- checked at startup and recognised in constraint violations
+DO $$
+DECLARE
+    c RECORD;
+BEGIN
+    FOR c IN
+        SELECT con.conname, att.attname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = con.conkey[1]
+        WHERE con.conrelid = 'users'::regclass
+          AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1
+          AND att.attname IN ('username', 'email')
+          AND con.conname <> 'uk_users_' || att.attname
+    LOOP
+        EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO %I', c.conname, 'uk_users_' || c.attname);
+    END LOOP;
+END $$;
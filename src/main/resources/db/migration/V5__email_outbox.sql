@@ -0,0 +1,17 @@
+-- Emails queued in the sender's transaction and delivered by EmailOutboxWorker
+-- IF NOT EXISTS: databases created by Hibernate (ddl-auto=update) before the migrations already have it.
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    recipient       VARCHAR(255) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    html_body       BYTEA        NOT NULL,
+    text_body       BYTEA        NOT NULL,
+    status          VARCHAR(16)  NOT NULL CHECK (status IN ('PENDING', 'SENT', 'DEAD')),
+    priority        SMALLINT     NOT NULL DEFAULT 1 CHECK (priority BETWEEN 0 AND 1),
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    sent_at         TIMESTAMP(6) WITH TIME ZONE
+);
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
@@ -0,0 +1,11 @@
+-- Pending email verifications, keyed by the SHA-256 of the token
+-- IF NOT EXISTS: databases created by Hibernate (ddl-auto=update) before the migrations already have it.
+CREATE TABLE IF NOT EXISTS verification_tokens (
+    token_hash VARCHAR(64)  PRIMARY KEY,
+    user_id    BIGINT       NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_verification_tokens_user_id ON verification_tokens (user_id);
+CREATE INDEX IF NOT EXISTS idx_verification_tokens_expires_at ON verification_tokens (expires_at);
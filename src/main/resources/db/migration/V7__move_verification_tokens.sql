@@ -0,0 +1,10 @@
+-- Pending verification tokens move from users.verification_token (compared as whole JWT strings,
+-- unindexed) to verification_tokens, keyed by their SHA-256. The JWT still expires on its own,
+-- so the row is kept for the default verification lifetime.
+INSERT INTO verification_tokens (token_hash, user_id, email, created_at, expires_at)
+SELECT encode(sha256(convert_to(verification_token, 'UTF8')), 'hex'), id, email, now(), now() + INTERVAL '1 day'
+FROM users
+WHERE verification_token IS NOT NULL AND enabled = FALSE
+ON CONFLICT (token_hash) DO NOTHING;
+
+ALTER TABLE users DROP COLUMN IF EXISTS verification_token;
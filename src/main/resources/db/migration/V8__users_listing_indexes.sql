@@ -0,0 +1,12 @@
+-- Admin user listing: newest first, seeking on (created_at, id), optionally filtered by
+-- role, provider or enabled. Each filter has an index that serves both the filter and the order.
+UPDATE users SET created_at = 0 WHERE created_at IS NULL;
+ALTER TABLE users ALTER COLUMN created_at SET NOT NULL;
+
+-- Local accounts were stored without a provider
+UPDATE users SET provider = 'LOCAL' WHERE provider IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_users_role_created_at_id ON users (role, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_users_provider_created_at_id ON users (provider, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_users_enabled_created_at_id ON users (enabled, created_at, id);
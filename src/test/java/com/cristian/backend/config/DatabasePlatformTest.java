@@ -0,0 +1,34 @@
+package com.cristian.backend.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DatabasePlatform Test Suite")
+class DatabasePlatformTest {
+
+    @Test
+    @DisplayName("Should detect the database from the DataSource metadata")
+    void testDetectsFromMetadata() throws Exception {
+        // GIVEN
+        SingleConnectionDataSource dataSource =
+                new SingleConnectionDataSource("jdbc:h2:mem:platform", "sa", "", true);
+
+        // WHEN
+        DatabasePlatform platform = new DatabasePlatform(dataSource);
+        dataSource.destroy();
+
+        // THEN
+        assertFalse(platform.isPostgreSQL());
+    }
+
+    @Test
+    @DisplayName("Should report PostgreSQL for the PostgreSQL driver")
+    void testPostgreSQL() {
+        assertTrue(new DatabasePlatform(DatabaseDriver.POSTGRESQL).isPostgreSQL());
+        assertFalse(new DatabasePlatform(DatabaseDriver.H2).isPostgreSQL());
+    }
+}
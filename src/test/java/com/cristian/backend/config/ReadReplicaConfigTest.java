@@ -0,0 +1,56 @@
+package com.cristian.backend.config;
+
+import com.cristian.backend.model.User;
+import com.cristian.backend.repository.UserRepository;
+import com.cristian.backend.security.OAuth2LoginSuccessHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The replica is the same in-memory database, so reads routed to it see what the primary wrote
+@SpringBootTest(properties = "app.datasource.replica-urls=jdbc:h2:mem:testdb")
+@ActiveProfiles("test")
+@DisplayName("ReadReplicaConfig Test Suite")
+class ReadReplicaConfigTest {
+
+    @MockitoBean
+    private JwtDecoder jwtDecoder;
+
+    @MockitoBean
+    private OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should route through the lazy proxy and report metrics per pool")
+    void testWiring() {
+        // GIVEN
+        userRepository.saveAndFlush(User.builder().username("replicated").email("replicated@test.com").build());
+
+        // WHEN
+        boolean found = userRepository.findProfileByEmail("replicated@test.com").isPresent();
+
+        // THEN
+        assertTrue(found);
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-1").gauge());
+    }
+}
@@ -0,0 +1,105 @@
+package com.cristian.backend.config;
+
+import com.cristian.backend.service.ReadYourWritesGuard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ReplicaRoutingDataSource Test Suite")
+class ReplicaRoutingDataSourceTest {
+
+    private SingleConnectionDataSource primary;
+    private SingleConnectionDataSource replica1;
+    private SingleConnectionDataSource replica2;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica1 = database("replica1");
+        replica2 = database("replica2");
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, List.of(replica1, replica2)));
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (SingleConnectionDataSource database : List.of(primary, replica1, replica2)) {
+            new JdbcTemplate(database).execute("DROP ALL OBJECTS");
+            database.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should send writes to the primary and spread read-only transactions over the replicas")
+    void testRouting() {
+        // WHEN
+        String written = writes.execute(status -> whoAmI());
+        String firstRead = reads.execute(status -> whoAmI());
+        String secondRead = reads.execute(status -> whoAmI());
+        String outsideTransaction = whoAmI();
+
+        // THEN
+        assertEquals("primary", written);
+        assertEquals(List.of("replica1", "replica2"), List.of(firstRead, secondRead).stream().sorted().toList());
+        assertEquals("primary", outsideTransaction);
+    }
+
+    @Test
+    @DisplayName("Should keep pinned reads on the primary")
+    void testPinnedReadUsesPrimary() {
+        // GIVEN
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(5000);
+        guard.recordWrite("user@test.com");
+
+        // WHEN
+        String read = guard.read("user@test.com", () -> reads.execute(status -> whoAmI()));
+
+        // THEN
+        assertEquals("primary", read);
+    }
+
+    @Test
+    @DisplayName("Should use the primary for reads when there are no replicas")
+    void testNoReplicas() {
+        // GIVEN
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, List.of()));
+        jdbc = new JdbcTemplate(dataSource);
+        reads = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        reads.setReadOnly(true);
+
+        // WHEN & THEN
+        assertEquals("primary", reads.execute(status -> whoAmI()));
+    }
+
+    private String whoAmI() {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static SingleConnectionDataSource database(String name) {
+        SingleConnectionDataSource database = new SingleConnectionDataSource(
+                "jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "", true);
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return database;
+    }
+}
@@ -0,0 +1,75 @@
+package com.cristian.backend.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SchemaDriftCheck Test Suite")
+class SchemaDriftCheckTest {
+
+    private SingleConnectionDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:drift;DB_CLOSE_DELAY=-1", "sa", "", true);
+        for (Map.Entry<String, List<String>> table : SchemaDriftCheck.REQUIRED_INDEXES.entrySet()) {
+            execute("CREATE TABLE " + table.getKey() + " (id BIGINT PRIMARY KEY, a VARCHAR(64))");
+            for (String index : table.getValue()) {
+                execute("CREATE INDEX " + index + " ON " + table.getKey() + " (a)");
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    @DisplayName("Should pass when every required index exists")
+    void testNoDrift() throws SQLException {
+        // GIVEN
+        Flyway flyway = mock(Flyway.class);
+        when(flyway.info()).thenReturn(mock(MigrationInfoService.class));
+
+        // WHEN & THEN
+        assertDoesNotThrow(() -> new SchemaDriftCheck(dataSource, flyway).check());
+        verify(flyway).validate();
+    }
+
+    @Test
+    @DisplayName("Should fail startup listing the indexes that were dropped")
+    void testMissingIndexes() throws SQLException {
+        // GIVEN
+        execute("DROP INDEX idx_users_created_at_id");
+        execute("DROP INDEX idx_refresh_tokens_family_id");
+
+        // WHEN
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new SchemaDriftCheck(dataSource, mock(Flyway.class)).check());
+
+        // THEN
+        assertTrue(exception.getMessage().contains("[refresh_tokens.idx_refresh_tokens_family_id, users.idx_users_created_at_id]"),
+                exception.getMessage());
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
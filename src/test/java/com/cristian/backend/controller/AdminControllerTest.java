@@ -1,12 +1,20 @@
 package com.cristian.backend.controller;
 
+import com.cristian.backend.dto.BatchRoleChangeRequest;
 import com.cristian.backend.dto.ChangeRoleRequest;
+import com.cristian.backend.dto.RoleChangeResult;
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.dto.UserListItem;
+import com.cristian.backend.dto.UserPage;
+import com.cristian.backend.dto.UserSummary;
+import com.cristian.backend.exception.InvalidCursorException;
 import com.cristian.backend.exception.UserNotFoundException;
 import com.cristian.backend.model.User;
 import com.cristian.backend.security.JwtService;
 import com.cristian.backend.security.OAuth2LoginSuccessHandler;
 import com.cristian.backend.service.AuthService;
 import com.cristian.backend.service.EmailService;
+import com.cristian.backend.service.UserExportService;
 import com.cristian.backend.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,10 +30,23 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -41,6 +62,9 @@ public class AdminControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private UserExportService userExportService;
+
     @MockitoBean
     private AuthService authService;
 
@@ -81,15 +105,7 @@ public class AdminControllerTest {
     @DisplayName("Should successfully change user role by email when admin is authenticated")
     @WithMockUser(roles = "ADMIN")
     public void testChangeUserRoleByEmail_Success() throws Exception {
-        User updatedUser = User.builder()
-                .id(1L)
-                .username("johndoe")
-                .email("johndoe@example.com")
-                .firstName("John")
-                .lastName("Doe")
-                .role(User.Role.ADMIN)
-                .enabled(true)
-                .build();
+        UserSummary updatedUser = new UserSummary(1L, "johndoe", "johndoe@example.com", User.Role.ADMIN);
 
         when(userService.changeUserRole(eq("johndoe@example.com"), eq(User.Role.ADMIN)))
                 .thenReturn(updatedUser);
@@ -110,15 +126,7 @@ public class AdminControllerTest {
     @DisplayName("Should successfully change user role by userId when admin is authenticated")
     @WithMockUser(roles = "ADMIN")
     public void testChangeUserRoleByUserId_Success() throws Exception {
-        User updatedUser = User.builder()
-                .id(1L)
-                .username("johndoe")
-                .email("johndoe@example.com")
-                .firstName("John")
-                .lastName("Doe")
-                .role(User.Role.ADMIN)
-                .enabled(true)
-                .build();
+        UserSummary updatedUser = new UserSummary(1L, "johndoe", "johndoe@example.com", User.Role.ADMIN);
 
         when(userService.changeUserRoleById(eq(1L), eq(User.Role.ADMIN)))
                 .thenReturn(updatedUser);
@@ -142,13 +150,7 @@ public class AdminControllerTest {
                 .role(User.Role.USER)
                 .build();
 
-        User updatedUser = User.builder()
-                .id(2L)
-                .username("adminuser")
-                .email("admin@example.com")
-                .role(User.Role.USER)
-                .enabled(true)
-                .build();
+        UserSummary updatedUser = new UserSummary(2L, "adminuser", "admin@example.com", User.Role.USER);
 
         when(userService.changeUserRole(eq("admin@example.com"), eq(User.Role.USER)))
                 .thenReturn(updatedUser);
@@ -280,13 +282,7 @@ public class AdminControllerTest {
                 .role(User.Role.ADMIN)
                 .build();
 
-        User updatedUser = User.builder()
-                .id(1L)
-                .username("johndoe")
-                .email("johndoe@example.com")
-                .role(User.Role.ADMIN)
-                .enabled(true)
-                .build();
+        UserSummary updatedUser = new UserSummary(1L, "johndoe", "johndoe@example.com", User.Role.ADMIN);
 
         when(userService.changeUserRoleById(eq(1L), eq(User.Role.ADMIN)))
                 .thenReturn(updatedUser);
@@ -307,13 +303,7 @@ public class AdminControllerTest {
                 .role(User.Role.ADMIN)
                 .build();
 
-        User updatedUser = User.builder()
-                .id(3L)
-                .username("userplustag")
-                .email("user+tag@example.com")
-                .role(User.Role.ADMIN)
-                .enabled(true)
-                .build();
+        UserSummary updatedUser = new UserSummary(3L, "userplustag", "user+tag@example.com", User.Role.ADMIN);
 
         when(userService.changeUserRole(eq("user+tag@example.com"), eq(User.Role.ADMIN)))
                 .thenReturn(updatedUser);
@@ -346,5 +336,195 @@ public class AdminControllerTest {
                         .content("{}"))
                 .andExpect(status().isBadRequest());
     }
-}
 
+    // ============ USER LISTING ============
+
+    @Test
+    @DisplayName("Should list a filtered page of users with the next cursor")
+    @WithMockUser(roles = "ADMIN")
+    public void testListUsers_FilteredPage() throws Exception {
+        UserListItem user = new UserListItem(42L, "johndoe", "johndoe@example.com", "John", "Doe",
+                User.Role.USER, User.AuthProvider.GOOGLE, true, 1767225600000L);
+        when(userService.listUsers(eq(new UserFilter(User.Role.USER, User.AuthProvider.GOOGLE, true)),
+                eq("abc"), eq(20), eq(false)))
+                .thenReturn(new UserPage(List.of(user), "next", null));
+
+        mockMvc.perform(get("/api/admin/users")
+                        .param("role", "USER")
+                        .param("provider", "GOOGLE")
+                        .param("enabled", "true")
+                        .param("cursor", "abc")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.users[0].id").value(42))
+                .andExpect(jsonPath("$.users[0].provider").value("GOOGLE"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.total").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should include the total only when asked for")
+    @WithMockUser(roles = "ADMIN")
+    public void testListUsers_WithTotal() throws Exception {
+        when(userService.listUsers(eq(new UserFilter(null, null, null)), eq(null), eq(50), eq(true)))
+                .thenReturn(new UserPage(List.of(), null, 0L));
+
+        mockMvc.perform(get("/api/admin/users").param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.total").value(0));
+    }
+
+    @Test
+    @DisplayName("Should return bad request for an invalid cursor")
+    @WithMockUser(roles = "ADMIN")
+    public void testListUsers_InvalidCursor() throws Exception {
+        when(userService.listUsers(any(UserFilter.class), eq("broken"), eq(50), eq(false)))
+                .thenThrow(new InvalidCursorException());
+
+        mockMvc.perform(get("/api/admin/users").param("cursor", "broken"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return forbidden when listing users without ADMIN role")
+    @WithMockUser(roles = "USER")
+    public void testListUsers_Forbidden_NotAdmin() throws Exception {
+        mockMvc.perform(get("/api/admin/users"))
+                .andExpect(status().isForbidden());
+    }
+
+    // ============ BATCH ROLE CHANGE ============
+
+    @Test
+    @DisplayName("Should change roles in batch and summarise the results")
+    @WithMockUser(roles = "ADMIN")
+    public void testChangeUserRoles_Success() throws Exception {
+        BatchRoleChangeRequest request = BatchRoleChangeRequest.builder()
+                .userIds(List.of(1L, 99L))
+                .emails(List.of("johndoe@example.com"))
+                .role(User.Role.ADMIN)
+                .build();
+        when(userService.changeUserRoles(List.of(1L, 99L), List.of("johndoe@example.com"), User.Role.ADMIN))
+                .thenReturn(List.of(
+                        new RoleChangeResult(1L, "one@example.com", RoleChangeResult.Status.UPDATED),
+                        new RoleChangeResult(99L, null, RoleChangeResult.Status.NOT_FOUND),
+                        new RoleChangeResult(2L, "johndoe@example.com", RoleChangeResult.Status.UNCHANGED)));
+
+        mockMvc.perform(post("/api/admin/users/roles:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.unchanged").value(1))
+                .andExpect(jsonPath("$.notFound").value(1))
+                .andExpect(jsonPath("$.results[1].id").value(99))
+                .andExpect(jsonPath("$.results[1].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when the batch lists no users")
+    @WithMockUser(roles = "ADMIN")
+    public void testChangeUserRoles_NoUsers_BadRequest() throws Exception {
+        BatchRoleChangeRequest request = BatchRoleChangeRequest.builder()
+                .userIds(List.of())
+                .role(User.Role.ADMIN)
+                .build();
+
+        mockMvc.perform(post("/api/admin/users/roles:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("You must provide userIds or emails"));
+    }
+
+    @Test
+    @DisplayName("Should return bad request when the batch has no role")
+    @WithMockUser(roles = "ADMIN")
+    public void testChangeUserRoles_MissingRole_BadRequest() throws Exception {
+        BatchRoleChangeRequest request = BatchRoleChangeRequest.builder()
+                .userIds(List.of(1L))
+                .build();
+
+        mockMvc.perform(post("/api/admin/users/roles:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return forbidden for a batch role change without ADMIN role")
+    @WithMockUser(roles = "USER")
+    public void testChangeUserRoles_Forbidden_NotAdmin() throws Exception {
+        BatchRoleChangeRequest request = BatchRoleChangeRequest.builder()
+                .userIds(List.of(1L))
+                .role(User.Role.ADMIN)
+                .build();
+
+        mockMvc.perform(post("/api/admin/users/roles:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+    }
+
+    // ============ EXPORT USERS ============
+
+    @Test
+    @DisplayName("Should stream the export as a CSV attachment by default")
+    @WithMockUser(roles = "ADMIN")
+    public void testExportUsers_Csv() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("id,email\n1,john@example.com\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userExportService).export(eq(new UserFilter(User.Role.USER, null, null)), eq(UserExportService.Format.CSV), any());
+
+        mockMvc.perform(get("/api/admin/users/export").param("role", "USER"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("id,email\n1,john@example.com\n"));
+    }
+
+    @Test
+    @DisplayName("Should gzip the export when the client accepts it")
+    @WithMockUser(roles = "ADMIN")
+    public void testExportUsers_Gzip() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userExportService).export(any(), eq(UserExportService.Format.NDJSON), any());
+
+        byte[] body = mockMvc.perform(get("/api/admin/users/export")
+                        .param("format", "NDJSON")
+                        .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("{\"id\":1}\n", new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not gzip the export when the client refuses it")
+    @WithMockUser(roles = "ADMIN")
+    public void testExportUsers_GzipRefused() throws Exception {
+        mockMvc.perform(get("/api/admin/users/export").header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+    }
+
+    @Test
+    @DisplayName("Should return forbidden for an export without ADMIN role")
+    @WithMockUser(roles = "USER")
+    public void testExportUsers_Forbidden_NotAdmin() throws Exception {
+        mockMvc.perform(get("/api/admin/users/export"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
@@ -279,9 +280,11 @@ public class AuthControllerTest {
         when(authService.getUserByEmail("bejaranno05cortes@gmail.com"))
                 .thenReturn(userResponse);
 
-        when(jwtService.extractSubject(any())).thenReturn("bejaranno05cortes@gmail.com");
-        when(jwtService.extractRole(any())).thenReturn("USER");
-        when(jwtService.isTokenExpired(any())).thenReturn(false);
+        when(jwtDecoder.decode("valid-jwt-token")).thenReturn(Jwt.withTokenValue("valid-jwt-token")
+                .header("typ", "JWT")
+                .subject("bejaranno05cortes@gmail.com")
+                .claim("role", "USER")
+                .build());
 
         mockMvc.perform(get("/api/auth/me")
                         .header("Authorization", "Bearer valid-jwt-token"))
@@ -319,6 +322,58 @@ public class AuthControllerTest {
                 .andExpect(header().string("Set-Cookie", org.hamcrest.Matchers.containsString("Max-Age=0")));
     }
 
+    // ============ TESTS FOR /refresh ENDPOINT ============
+
+    @Test
+    @DisplayName("Should return new tokens when refreshing with a body token")
+    public void testRefreshWithBody() throws Exception {
+        AuthResponse refreshed = AuthResponse.builder()
+                .success(true)
+                .message("Token refreshed")
+                .token("new-jwt")
+                .refreshToken("refresh-2")
+                .build();
+        when(authService.refresh("refresh-1")).thenReturn(refreshed);
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\": \"refresh-1\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("new-jwt"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh-2"))
+                .andExpect(header().doesNotExist("Set-Cookie"));
+    }
+
+    @Test
+    @DisplayName("Should rotate cookies when refreshing with the refresh cookie")
+    public void testRefreshWithCookie() throws Exception {
+        AuthResponse refreshed = AuthResponse.builder()
+                .success(true)
+                .token("new-jwt")
+                .refreshToken("refresh-2")
+                .build();
+        when(authService.refresh("refresh-1")).thenReturn(refreshed);
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .cookie(new jakarta.servlet.http.Cookie("refresh_token", "refresh-1")))
+                .andExpect(status().isOk())
+                .andExpect(cookie().value("token", "new-jwt"))
+                .andExpect(cookie().value("refresh_token", "refresh-2"))
+                .andExpect(cookie().path("refresh_token", "/api/auth"));
+    }
+
+    @Test
+    @DisplayName("Should return 401 when the refresh token is invalid")
+    public void testRefreshInvalidToken() throws Exception {
+        when(authService.refresh(any()))
+                .thenThrow(new com.cristian.backend.exception.InvalidRefreshTokenException());
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\": \"reused\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
     // ============ TESTS FOR /resend-verification ENDPOINT ============
 
     @Test
@@ -0,0 +1,61 @@
+package com.cristian.backend.repository;
+
+import com.cristian.backend.model.OutboxEmail;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("OutboxEmailRepository Test Suite")
+class OutboxEmailRepositoryTest {
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Test
+    @DisplayName("Should delete only sent and dead emails older than the cutoff, at most limit at a time")
+    void testDeleteFinished() {
+        // GIVEN
+        Instant cutoff = Instant.now().minus(Duration.ofDays(7));
+        Instant old = cutoff.minus(Duration.ofHours(1));
+        Instant recent = cutoff.plus(Duration.ofHours(1));
+        outboxEmailRepository.save(email("old-sent-1", OutboxEmail.Status.SENT, old));
+        outboxEmailRepository.save(email("old-sent-2", OutboxEmail.Status.SENT, old));
+        outboxEmailRepository.save(email("old-dead", OutboxEmail.Status.DEAD, old));
+        outboxEmailRepository.save(email("old-pending", OutboxEmail.Status.PENDING, old));
+        outboxEmailRepository.saveAndFlush(email("recent-sent", OutboxEmail.Status.SENT, recent));
+
+        // WHEN
+        int first = outboxEmailRepository.deleteFinished(cutoff, 2);
+        int second = outboxEmailRepository.deleteFinished(cutoff, 2);
+
+        // THEN
+        assertEquals(2, first);
+        assertEquals(1, second);
+        assertEquals(Set.of("old-pending", "recent-sent"), outboxEmailRepository.findAll().stream()
+                .map(OutboxEmail::getRecipient).collect(Collectors.toSet()));
+    }
+
+    private static OutboxEmail email(String recipient, OutboxEmail.Status status, Instant createdAt) {
+        return OutboxEmail.builder()
+                .recipient(recipient)
+                .subject("Subject")
+                .htmlBody("<p>Hi</p>".getBytes(StandardCharsets.UTF_8))
+                .textBody("Hi".getBytes(StandardCharsets.UTF_8))
+                .status(status)
+                .nextAttemptAt(createdAt)
+                .createdAt(createdAt)
+                .build();
+    }
+}
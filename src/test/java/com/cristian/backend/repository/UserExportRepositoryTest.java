@@ -0,0 +1,75 @@
+package com.cristian.backend.repository;
+
+import com.cristian.backend.dto.UserExportRow;
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(UserExportRepository.class)
+@DisplayName("UserExportRepository Test Suite")
+class UserExportRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserExportRepository userExportRepository;
+
+    @Test
+    @DisplayName("Should stream every user in id order")
+    void testForEachStreamsAllUsers() {
+        // GIVEN
+        User first = userRepository.save(user("first", "first@test.com", User.Role.USER, User.AuthProvider.LOCAL, true));
+        User second = userRepository.saveAndFlush(user("second", "second@test.com", User.Role.ADMIN, User.AuthProvider.GOOGLE, false));
+
+        // WHEN
+        List<UserExportRow> rows = new ArrayList<>();
+        userExportRepository.forEach(new UserFilter(null, null, null), rows::add);
+
+        // THEN
+        assertEquals(List.of(
+                new UserExportRow(first.getId(), "first@test.com", "first", User.Role.USER, User.AuthProvider.LOCAL, true, 1000L),
+                new UserExportRow(second.getId(), "second@test.com", "second", User.Role.ADMIN, User.AuthProvider.GOOGLE, false, 1000L)
+        ), rows);
+    }
+
+    @Test
+    @DisplayName("Should only stream users matching the filter")
+    void testForEachAppliesFilter() {
+        // GIVEN
+        userRepository.save(user("admin", "admin@test.com", User.Role.ADMIN, User.AuthProvider.LOCAL, true));
+        userRepository.save(user("google", "google@test.com", User.Role.USER, User.AuthProvider.GOOGLE, true));
+        userRepository.saveAndFlush(user("pending", "pending@test.com", User.Role.USER, User.AuthProvider.LOCAL, false));
+
+        // WHEN
+        List<UserExportRow> rows = new ArrayList<>();
+        userExportRepository.forEach(new UserFilter(User.Role.USER, User.AuthProvider.LOCAL, false), rows::add);
+
+        // THEN
+        assertEquals(List.of("pending"), rows.stream().map(UserExportRow::username).toList());
+    }
+
+    private static User user(String username, String email, User.Role role, User.AuthProvider provider, boolean enabled) {
+        return User.builder()
+                .username(username)
+                .email(email)
+                .password("hashed")
+                .role(role)
+                .provider(provider)
+                .enabled(enabled)
+                .createdAt(1000L)
+                .build();
+    }
+}
@@ -0,0 +1,207 @@
+package com.cristian.backend.repository;
+
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.dto.UserListItem;
+import com.cristian.backend.dto.UserProfile;
+import com.cristian.backend.dto.UserSummary;
+import com.cristian.backend.model.User;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("UserRepository Test Suite")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("Should report a duplicate username by the uk_users_username constraint")
+    void testDuplicateUsernameConstraintName() {
+        // GIVEN
+        userRepository.saveAndFlush(user("taken", "first@test.com"));
+
+        // WHEN
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("taken", "second@test.com")));
+
+        // THEN
+        assertTrue(constraintName(exception).contains("uk_users_username"), constraintName(exception));
+    }
+
+    @Test
+    @DisplayName("Should report a duplicate email by the uk_users_email constraint")
+    void testDuplicateEmailConstraintName() {
+        // GIVEN
+        userRepository.saveAndFlush(user("first", "taken@test.com"));
+
+        // WHEN
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("second", "taken@test.com")));
+
+        // THEN
+        assertTrue(constraintName(exception).contains("uk_users_email"), constraintName(exception));
+    }
+
+    @Test
+    @DisplayName("Should enable a user only once")
+    void testEnableIsConditional() {
+        // GIVEN
+        User user = userRepository.saveAndFlush(user("pending", "pending@test.com"));
+
+        // WHEN & THEN
+        assertEquals(1, userRepository.enable(user.getId()));
+        assertEquals(0, userRepository.enable(user.getId()));
+    }
+
+    @Test
+    @DisplayName("Should return the highest numeric suffix taken for a base name")
+    void testFindMaxUsernameSuffix() {
+        // GIVEN
+        userRepository.saveAndFlush(user("john.doe", "a@test.com"));
+        userRepository.saveAndFlush(user("john.doe9", "b@test.com"));
+        userRepository.saveAndFlush(user("john.doe12", "c@test.com"));
+        userRepository.saveAndFlush(user("john.doe99x", "d@test.com"));
+        userRepository.saveAndFlush(user("john.doe.smith100", "e@test.com"));
+        userRepository.saveAndFlush(user("john.dof500", "f@test.com"));
+
+        // WHEN & THEN
+        assertEquals(Optional.of(12L), userRepository.findMaxUsernameSuffix("john.doe", "john.doe0", "john.doea"));
+        assertEquals(Optional.empty(), userRepository.findMaxUsernameSuffix("jane.doe", "jane.doe0", "jane.doea"));
+    }
+
+    @Test
+    @DisplayName("Should report suffix 0 when only the bare name is taken")
+    void testFindMaxUsernameSuffixBareName() {
+        // GIVEN
+        userRepository.saveAndFlush(user("prince", "a@test.com"));
+        userRepository.saveAndFlush(user("princess", "b@test.com"));
+
+        // WHEN & THEN
+        assertEquals(Optional.of(0L), userRepository.findMaxUsernameSuffix("prince", "prince0", "princea"));
+    }
+
+    @Test
+    @DisplayName("Should read profiles and summaries without the password")
+    void testProjections() {
+        // GIVEN
+        User user = userRepository.saveAndFlush(user("projected", "projected@test.com"));
+
+        // WHEN
+        UserProfile byEmail = userRepository.findProfileByEmail("projected@test.com").orElseThrow();
+        UserSummary byId = userRepository.findSummaryById(user.getId()).orElseThrow();
+
+        // THEN
+        assertEquals(new UserProfile(user.getId(), "projected", "projected@test.com", null, null, User.Role.USER, false), byEmail);
+        assertEquals(new UserSummary(user.getId(), "projected", "projected@test.com", User.Role.USER), byId);
+        assertTrue(userRepository.findSummaryByEmail("missing@test.com").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should change only the role")
+    void testUpdateRole() {
+        // GIVEN
+        User user = userRepository.saveAndFlush(user("promoted", "promoted@test.com"));
+
+        // WHEN
+        int updated = userRepository.updateRole(user.getId(), User.Role.ADMIN);
+
+        // THEN
+        assertEquals(1, updated);
+        assertEquals(User.Role.ADMIN, userRepository.findProfileById(user.getId()).orElseThrow().role());
+        assertEquals(0, userRepository.updateRole(-1L, User.Role.ADMIN));
+    }
+
+    @Test
+    @DisplayName("Should change the role of the listed users that don't have it yet")
+    void testUpdateRoles() {
+        // GIVEN
+        User user = userRepository.save(user("plain", "plain@test.com", 1000L, User.Role.USER));
+        User admin = userRepository.save(user("boss", "boss@test.com", 1000L, User.Role.ADMIN));
+        User other = userRepository.saveAndFlush(user("other", "other@test.com", 1000L, User.Role.USER));
+
+        // WHEN
+        int updated = userRepository.updateRoles(List.of(user.getId(), admin.getId()), User.Role.ADMIN);
+
+        // THEN
+        assertEquals(1, updated);
+        assertEquals(User.Role.ADMIN, userRepository.findSummaryById(user.getId()).orElseThrow().role());
+        assertEquals(User.Role.USER, userRepository.findSummaryById(other.getId()).orElseThrow().role());
+        assertEquals(Set.of("plain", "boss"), userRepository.lockSummariesByEmailIn(List.of("plain@test.com", "boss@test.com"))
+                .stream().map(UserSummary::username).collect(java.util.stream.Collectors.toSet()));
+    }
+
+    @Test
+    @DisplayName("Should page newest first by seeking past the last (created_at, id)")
+    void testFindPageSeeks() {
+        // GIVEN
+        User oldest = userRepository.save(user("oldest", "oldest@test.com", 1000L, User.Role.USER));
+        User tiedLow = userRepository.save(user("tied.low", "tied.low@test.com", 2000L, User.Role.ADMIN));
+        User tiedHigh = userRepository.save(user("tied.high", "tied.high@test.com", 2000L, User.Role.USER));
+        User newest = userRepository.saveAndFlush(user("newest", "newest@test.com", 3000L, User.Role.USER));
+        UserFilter any = new UserFilter(null, null, null);
+
+        // WHEN
+        List<UserListItem> first = userRepository.findPage(any, null, null, 2);
+        UserListItem last = first.get(1);
+        List<UserListItem> second = userRepository.findPage(any, last.createdAt(), last.id(), 2);
+
+        // THEN
+        assertEquals(List.of(newest.getId(), tiedHigh.getId()), first.stream().map(UserListItem::id).toList());
+        assertEquals(List.of(tiedLow.getId(), oldest.getId()), second.stream().map(UserListItem::id).toList());
+    }
+
+    @Test
+    @DisplayName("Should apply only the filters that are set, in the page and in the count")
+    void testFindPageFilters() {
+        // GIVEN
+        userRepository.save(user("admin", "admin@test.com", 1000L, User.Role.ADMIN));
+        User user = user("enabled.user", "enabled.user@test.com", 2000L, User.Role.USER);
+        user.setEnabled(true);
+        userRepository.save(user);
+        userRepository.saveAndFlush(user("pending.user", "pending.user@test.com", 3000L, User.Role.USER));
+
+        // WHEN
+        List<UserListItem> users = userRepository.findPage(new UserFilter(User.Role.USER, null, true), null, null, 10);
+
+        // THEN
+        assertEquals(List.of("enabled.user"), users.stream().map(UserListItem::username).toList());
+        assertEquals(2, userRepository.countMatching(new UserFilter(User.Role.USER, null, null)));
+        assertEquals(3, userRepository.countMatching(new UserFilter(null, User.AuthProvider.LOCAL, null)));
+        assertEquals(0, userRepository.countMatching(new UserFilter(null, User.AuthProvider.GOOGLE, null)));
+    }
+
+    private static User user(String username, String email, long createdAt, User.Role role) {
+        User user = user(username, email);
+        user.setCreatedAt(createdAt);
+        user.setRole(role);
+        user.setProvider(User.AuthProvider.LOCAL);
+        return user;
+    }
+
+    private static String constraintName(DataIntegrityViolationException exception) {
+        ConstraintViolationException violation = (ConstraintViolationException) exception.getCause();
+        return violation.getConstraintName().toLowerCase(Locale.ROOT);
+    }
+
+    private static User user(String username, String email) {
+        return User.builder()
+                .username(username)
+                .email(email)
+                .password("hashed")
+                .build();
+    }
+}
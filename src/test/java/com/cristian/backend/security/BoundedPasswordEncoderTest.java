@@ -0,0 +1,120 @@
+package com.cristian.backend.security;
+
+import com.cristian.backend.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BoundedPasswordEncoder Test Suite")
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("Should delegate encode and matches and record their latency")
+    void testDelegates() {
+        // GIVEN
+        encoder = new BoundedPasswordEncoder(new ReversingEncoder(null), 2, 4, Duration.ofSeconds(5), 1, meterRegistry);
+
+        // WHEN
+        String encoded = encoder.encode("secret");
+
+        // THEN
+        assertEquals("terces", encoded);
+        assertTrue(encoder.matches("secret", encoded));
+        assertFalse(encoder.matches("other", encoded));
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hashing.duration").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should fail fast with a retry hint when the queue is full")
+    void testRejectsWhenQueueIsFull() throws Exception {
+        // GIVEN one thread busy and the single queue slot taken
+        encoder = new BoundedPasswordEncoder(new ReversingEncoder(release), 1, 1, Duration.ofSeconds(5), 3, meterRegistry);
+        CompletableFuture.runAsync(() -> encoder.encode("first"));
+        CompletableFuture.runAsync(() -> encoder.encode("second"));
+        waitUntil(() -> meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value() == 1);
+
+        // WHEN & THEN
+        PasswordHashingBusyException ex = assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("third"));
+        assertEquals(3, ex.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should give up when the hash is not ready within the wait timeout")
+    void testWaitTimeout() {
+        // GIVEN
+        encoder = new BoundedPasswordEncoder(new ReversingEncoder(release), 1, 4, Duration.ofMillis(50), 1, meterRegistry);
+
+        // WHEN & THEN
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.matches("secret", "terces"));
+    }
+
+    @Test
+    @DisplayName("Should propagate exceptions from the delegate")
+    void testPropagatesDelegateException() {
+        // GIVEN
+        encoder = new BoundedPasswordEncoder(new ReversingEncoder(null), 1, 4, Duration.ofSeconds(5), 1, meterRegistry);
+
+        // WHEN & THEN
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode(null));
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Cheap stand-in for BCrypt that can be held until the test releases it
+     */
+    private record ReversingEncoder(CountDownLatch gate) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (rawPassword == null) {
+                throw new IllegalArgumentException("rawPassword cannot be null");
+            }
+            await();
+            return new StringBuilder(rawPassword).reverse().toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return new StringBuilder(rawPassword).reverse().toString().equals(encodedPassword);
+        }
+
+        private void await() {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
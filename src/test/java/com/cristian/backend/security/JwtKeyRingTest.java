@@ -0,0 +1,153 @@
+package com.cristian.backend.security;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JwtKeyRing Test Suite")
+class JwtKeyRingTest {
+
+    private static final String LEGACY_SECRET = "U1YzVWdmVlhOcEo4dkd5VGlxWjhsOWcyRWpFZlIzUWxTdFc0TlpoMWg1dVEyTjBXVjRJSUI4aFNVQT09";
+    private static final String OLD_SECRET = "T0RNeU56VTBOelkyTURFd01EQTBNREEwTURBME1EQTBNREEwTURBME1EQTBNREEwTURBMA==";
+    private static final String NEW_SECRET = "bmV3LXNpZ25pbmcta2V5LWZvci1yb3RhdGlvbi10ZXN0cy0zMi1ieXRlcy1sb25n";
+    private static final Duration RETENTION = Duration.ofHours(24);
+
+    @Test
+    @DisplayName("Should sign with jwt.secret under the default kid when no ring is configured")
+    void testDefaultKeyWhenNoRingConfigured() {
+        // WHEN
+        JwtKeyRing keyRing = new JwtKeyRing(LEGACY_SECRET, null, List.of(), RETENTION);
+
+        // THEN
+        assertEquals(JwtKeyRing.DEFAULT_KID, keyRing.signingKid());
+        assertSame(keyRing.signingKey(), keyRing.verificationKey(null));
+    }
+
+    @Test
+    @DisplayName("Should sign with the active kid and keep verifying with a recently retired key")
+    void testRotationKeepsRetiredKeyVerifying() {
+        // GIVEN
+        JwtKeyRing keyRing = new JwtKeyRing(LEGACY_SECRET, "2026-02", List.of(
+                new JwtKeyRingProperties.Key("2026-01", null, OLD_SECRET, null, null, Instant.now().minus(Duration.ofHours(1)).toString()),
+                new JwtKeyRingProperties.Key("2026-02", null, NEW_SECRET, null, null, null)
+        ), RETENTION);
+        String oldToken = Jwts.builder()
+                .setHeaderParam("kid", "2026-01")
+                .setSubject("user@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(keyRing.verificationKey("2026-01"), SignatureAlgorithm.HS256)
+                .compact();
+
+        // WHEN
+        String subject = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyRing)
+                .build()
+                .parseClaimsJws(oldToken)
+                .getBody()
+                .getSubject();
+
+        // THEN
+        assertEquals("2026-02", keyRing.signingKid());
+        assertEquals("user@test.com", subject);
+    }
+
+    @Test
+    @DisplayName("Should stop verifying with a key once its retention period is over")
+    void testRetiredKeyExpiresAfterRetention() {
+        // GIVEN
+        JwtKeyRing keyRing = new JwtKeyRing(LEGACY_SECRET, null, List.of(
+                new JwtKeyRingProperties.Key("2025-12", null, OLD_SECRET, null, null, Instant.now().minus(Duration.ofDays(2)).toString())
+        ), RETENTION);
+
+        // WHEN & THEN
+        assertThrows(io.jsonwebtoken.security.SignatureException.class, () -> keyRing.verificationKey("2025-12"));
+    }
+
+    @Test
+    @DisplayName("Should reject tokens with an unknown kid")
+    void testUnknownKidIsRejected() {
+        // GIVEN
+        JwtKeyRing keyRing = new JwtKeyRing(LEGACY_SECRET, null, List.of(), RETENTION);
+
+        // WHEN & THEN
+        assertThrows(io.jsonwebtoken.security.SignatureException.class, () -> keyRing.verificationKey("missing"));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start when the signing kid is not configured")
+    void testMissingSigningKidFailsFast() {
+        // WHEN & THEN
+        assertThrows(IllegalStateException.class,
+                () -> new JwtKeyRing(LEGACY_SECRET, "missing", List.of(), RETENTION));
+    }
+
+    @Test
+    @DisplayName("Should sign with ES256 and publish only the public key in the JWK set")
+    void testEs256SigningAndJwks() throws Exception {
+        // GIVEN
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+        JwtKeyRing keyRing = new JwtKeyRing(LEGACY_SECRET, "ec-1", List.of(new JwtKeyRingProperties.Key(
+                "ec-1",
+                "ES256",
+                null,
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()),
+                null
+        )), RETENTION);
+        String token = Jwts.builder()
+                .setHeaderParam("kid", keyRing.signingKid())
+                .setSubject("user@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(keyRing.signingKey(), keyRing.signingAlgorithm())
+                .compact();
+
+        // WHEN
+        String subject = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyRing)
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+        JWKSet jwks = keyRing.publicJwkSet();
+
+        // THEN
+        assertEquals(SignatureAlgorithm.ES256, keyRing.signingAlgorithm());
+        assertEquals("user@test.com", subject);
+        assertEquals(1, jwks.getKeys().size());
+        assertEquals("ec-1", jwks.getKeys().get(0).getKeyID());
+        assertFalse(jwks.getKeys().get(0).isPrivate());
+    }
+
+    @Test
+    @DisplayName("Should reject a token whose header algorithm does not match its key")
+    void testAlgorithmMismatchIsRejected() {
+        // GIVEN
+        JwtKeyRing keyRing = new JwtKeyRing(LEGACY_SECRET, null, List.of(), RETENTION);
+        String token = Jwts.builder()
+                .setHeaderParam("kid", JwtKeyRing.DEFAULT_KID)
+                .setSubject("user@test.com")
+                .signWith(keyRing.signingKey(), SignatureAlgorithm.HS384)
+                .compact();
+
+        // WHEN & THEN
+        assertThrows(io.jsonwebtoken.security.SignatureException.class, () -> Jwts.parserBuilder()
+                .setSigningKeyResolver(keyRing)
+                .build()
+                .parseClaimsJws(token));
+    }
+}
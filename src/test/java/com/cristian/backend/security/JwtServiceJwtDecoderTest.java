@@ -0,0 +1,98 @@
+package com.cristian.backend.security;
+
+import com.cristian.backend.service.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("JwtServiceJwtDecoder Test Suite")
+class JwtServiceJwtDecoderTest {
+
+    private JwtService jwtService;
+    private TokenRevocationService revocationService;
+    private JwtServiceJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String secretKey = "U1YzVWdmVlhOcEo4dkd5VGlxWjhsOWcyRWpFZlIzUWxTdFc0TlpoMWg1dVEyTjBXVjRJSUI4aFNVQT09";
+        JwtKeyRing keyRing = new JwtKeyRing(secretKey, null, List.of(), Duration.ofDays(1));
+        jwtService = new JwtService(keyRing, new TokenCache<>(100, VerifiedToken::expiration));
+
+        var expirationField = JwtService.class.getDeclaredField("jwtExpiration");
+        expirationField.setAccessible(true);
+        expirationField.set(jwtService, 3600000L);
+        var verificationField = JwtService.class.getDeclaredField("verificationExpiration");
+        verificationField.setAccessible(true);
+        verificationField.set(jwtService, 86400000L);
+
+        revocationService = mock(TokenRevocationService.class);
+        decoder = new JwtServiceJwtDecoder(jwtService, revocationService);
+    }
+
+    @Test
+    @DisplayName("Should decode an access token into a Jwt with subject, role and dates")
+    void testDecodeAccessToken() {
+        // GIVEN
+        String token = jwtService.generateToken("user@test.com", "ADMIN");
+
+        // WHEN
+        Jwt jwt = decoder.decode(token);
+
+        // THEN
+        assertEquals("user@test.com", jwt.getSubject());
+        assertEquals("ADMIN", jwt.getClaimAsString("role"));
+        assertNotNull(jwt.getIssuedAt());
+        assertNotNull(jwt.getExpiresAt());
+        assertEquals(token, jwt.getTokenValue());
+    }
+
+    @Test
+    @DisplayName("Should reject verification tokens as authentication tokens")
+    void testDecodeRejectsVerificationToken() {
+        // GIVEN
+        String token = jwtService.generateVerificationToken("user@test.com");
+
+        // WHEN & THEN
+        assertThrows(BadJwtException.class, () -> decoder.decode(token));
+    }
+
+    @Test
+    @DisplayName("Should translate invalid signatures into BadJwtException")
+    void testDecodeRejectsTamperedToken() {
+        // GIVEN
+        String token = jwtService.generateToken("user@test.com", "USER");
+        String modifiedToken = tamper(token);
+
+        // WHEN & THEN
+        assertThrows(BadJwtException.class, () -> decoder.decode(modifiedToken));
+    }
+
+    @Test
+    @DisplayName("Should reject a revoked token even after it has been cached")
+    void testDecodeRejectsRevokedToken() {
+        // GIVEN
+        String token = jwtService.generateToken("user@test.com", "USER");
+        decoder.decode(token);
+        String tokenId = jwtService.verifyToken(token).id();
+        when(revocationService.isRevoked(tokenId)).thenReturn(true);
+
+        // WHEN & THEN
+        assertThrows(BadJwtException.class, () -> decoder.decode(token));
+    }
+
+    // Changes the first signature character: all of its bits are significant, unlike the last one
+    private static String tamper(String token) {
+        int i = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(i) == 'A' ? 'B' : 'A';
+        return token.substring(0, i) + replacement + token.substring(i + 1);
+    }
+}
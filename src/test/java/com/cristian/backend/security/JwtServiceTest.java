@@ -12,7 +12,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class JwtServiceTest {
 
     private JwtService jwtService;
+    private TokenCache<VerifiedToken> tokenCache;
     private String secretKey;
     private long verificationExpiration;
 
@@ -29,13 +32,11 @@ class JwtServiceTest {
         long jwtExpiration = 3600000;
         verificationExpiration = 86400000;
 
-        jwtService = new JwtService();
+        JwtKeyRing keyRing = new JwtKeyRing(secretKey, null, List.of(), Duration.ofMillis(verificationExpiration));
+        tokenCache = new TokenCache<>(1000, VerifiedToken::expiration);
+        jwtService = new JwtService(keyRing, tokenCache);
         // Inject private values using reflection
         try {
-            var secretField = JwtService.class.getDeclaredField("secretKey");
-            secretField.setAccessible(true);
-            secretField.set(jwtService, secretKey);
-
             var expirationField = JwtService.class.getDeclaredField("jwtExpiration");
             expirationField.setAccessible(true);
             expirationField.set(jwtService, jwtExpiration);
@@ -657,7 +658,7 @@ class JwtServiceTest {
         String username = "testuser";
         String token = jwtService.generateToken(username);
         // Modify the token (change a character in the signature)
-        String modifiedToken = token.substring(0, token.length() - 1) + "X";
+        String modifiedToken = tamper(token);
 
         // WHEN & THEN
         assertThrows(Throwable.class, () -> jwtService.extractSubject(modifiedToken));
@@ -732,4 +733,105 @@ class JwtServiceTest {
         // THEN
         assertFalse(isValid);
     }
+
+    @Test
+    @DisplayName("Should return subject, role, type and dates from a single verification")
+    void testVerifyTokenReturnsAllClaims() {
+        // GIVEN
+        String token = jwtService.generateToken("user@test.com", "ADMIN");
+
+        // WHEN
+        VerifiedToken verified = jwtService.verifyToken(token);
+
+        // THEN
+        assertEquals("user@test.com", verified.subject());
+        assertEquals("ADMIN", verified.role());
+        assertNull(verified.type());
+        assertNotNull(verified.issuedAt());
+        assertTrue(verified.expiration().isAfter(verified.issuedAt()));
+        assertFalse(verified.isExpired());
+        assertFalse(verified.isVerificationToken());
+    }
+
+    @Test
+    @DisplayName("Should flag verification tokens when verifying them")
+    void testVerifyTokenDetectsVerificationType() {
+        // GIVEN
+        String token = jwtService.generateVerificationToken("user@test.com");
+
+        // WHEN
+        VerifiedToken verified = jwtService.verifyToken(token);
+
+        // THEN
+        assertTrue(verified.isVerificationToken());
+        assertNull(verified.role());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when verifying a tampered token")
+    void testVerifyTokenWithModifiedToken() {
+        // GIVEN
+        String token = jwtService.generateToken("testuser");
+        String modifiedToken = tamper(token);
+
+        // WHEN & THEN
+        assertThrows(Throwable.class, () -> jwtService.verifyToken(modifiedToken));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated verifications of the same token from the cache")
+    void testVerifyTokenUsesCache() {
+        // GIVEN
+        String token = jwtService.generateToken("user@test.com", "USER");
+
+        // WHEN
+        VerifiedToken first = jwtService.verifyToken(token);
+        VerifiedToken second = jwtService.verifyToken(token);
+
+        // THEN
+        assertSame(first, second);
+        assertEquals(1, tokenCache.missCount());
+        assertEquals(1, tokenCache.hitCount());
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens that fail verification")
+    void testVerifyTokenDoesNotCacheFailures() {
+        // GIVEN
+        String token = jwtService.generateToken("testuser");
+        String modifiedToken = tamper(token);
+
+        // WHEN
+        assertThrows(Throwable.class, () -> jwtService.verifyToken(modifiedToken));
+        assertThrows(Throwable.class, () -> jwtService.verifyToken(modifiedToken));
+
+        // THEN
+        assertEquals(0, tokenCache.hitCount());
+        assertEquals(0, tokenCache.nativeCache().estimatedSize());
+    }
+
+    @Test
+    @DisplayName("Should stamp the signing key id in the token header")
+    void testGeneratedTokenCarriesKeyId() {
+        // GIVEN
+        String token = jwtService.generateToken("testuser");
+
+        // WHEN
+        String kid = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)))
+                .build()
+                .parseClaimsJws(token)
+                .getHeader()
+                .getKeyId();
+
+        // THEN
+        assertEquals(JwtKeyRing.DEFAULT_KID, kid);
+    }
+
+    // Changes the first signature character: all of its bits are significant, unlike the last one
+    private static String tamper(String token) {
+        int i = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(i) == 'A' ? 'B' : 'A';
+        return token.substring(0, i) + replacement + token.substring(i + 1);
+    }
 }
@@ -0,0 +1,28 @@
+package com.cristian.backend.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@DisplayName("TokenHashing Test Suite")
+class TokenHashingTest {
+
+    @Test
+    @DisplayName("Should return the lowercase hex SHA-256 of the token")
+    void testSha256Hex() {
+        // WHEN
+        String hash = TokenHashing.sha256Hex("abc");
+
+        // THEN
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", hash);
+    }
+
+    @Test
+    @DisplayName("Should hash different tokens differently")
+    void testDifferentTokens() {
+        // WHEN & THEN
+        assertNotEquals(TokenHashing.sha256Hex("token-1"), TokenHashing.sha256Hex("token-2"));
+    }
+}
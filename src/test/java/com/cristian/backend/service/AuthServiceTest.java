@@ -2,16 +2,28 @@ package com.cristian.backend.service;
 
 import com.cristian.backend.dto.AuthResponse;
 import com.cristian.backend.dto.RegisterRequest;
+import com.cristian.backend.dto.UserProfile;
 import com.cristian.backend.model.User;
+import com.cristian.backend.model.VerificationToken;
 import com.cristian.backend.repository.UserRepository;
 import com.cristian.backend.security.JwtService;
+import com.cristian.backend.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -29,11 +41,34 @@ class AuthServiceTest {
     private JwtService jwtService;
 
     @Mock
-    private EmailService emailService;
+    private EmailOutboxService emailOutboxService;
 
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private VerificationTokenService verificationTokenService;
+
+    @Spy
+    private VerificationResendCoalescer resendCoalescer = new VerificationResendCoalescer(60000, 16, new SimpleMeterRegistry());
+
+    @Spy
+    private UserCache userCache = new UserCache(1000, 60000, new SimpleMeterRegistry());
+
+    @Spy
+    private ReadYourWritesGuard readYourWrites = new ReadYourWritesGuard(5000);
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
     @InjectMocks
     private AuthService authService;
 
@@ -48,16 +83,14 @@ class AuthServiceTest {
                 .lastName("Cortes")
                 .build();
 
-        when(userRepository.existsByUsername("testUser")).thenReturn(false);
-        when(userRepository.existsByEmail("testUser@test.com")).thenReturn(false);
 
-        when(jwtService.generateVerificationToken("testUser@test.com"))
+        when(verificationTokenService.issue(1L, "testUser@test.com"))
                 .thenReturn("verification-token");
 
         when(passwordEncoder.encode("123456"))
                 .thenReturn("hashed-password");
 
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenAnswer(invocation -> {
                     User user = invocation.getArgument(0);
                     user.setId(1L);
@@ -73,14 +106,22 @@ class AuthServiceTest {
         assertEquals("testUser@test.com", response.getEmail());
         assertEquals(1L, response.getId());
 
-        verify(emailService, times(1))
-                .sendVerificationEmail(
+        verify(emailOutboxService, times(1))
+                .queueVerificationEmail(
                         "testUser@test.com",
                         "testUser",
                         "verification-token"
                 );
 
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByUsername(any());
+        verify(userRepository, never()).existsByEmail(any());
+
+        // hashed before the transaction (and its connection) is opened
+        InOrder inOrder = inOrder(passwordEncoder, transactionManager);
+        inOrder.verify(passwordEncoder).encode("123456");
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(transactionManager).commit(any());
     }
 
     @Test
@@ -95,17 +136,16 @@ class AuthServiceTest {
                 .lastName("Cortes")
                 .build();
 
-        when(userRepository.existsByUsername("testUserExistent"))
-                .thenReturn(true);
+        when(passwordEncoder.encode("123456")).thenReturn("hashed-password");
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(uniqueViolation("uk_users_username"));
 
         // ---------- WHEN ----------
         assertThrows(com.cristian.backend.exception.UsernameAlreadyExistsException.class, () -> authService.register(request));
 
         // ---------- THEN ----------
-        verify(userRepository, never()).save(any());
-        verify(emailService, never()).sendVerificationEmail(any(), any(), any());
-        verify(jwtService, never()).generateVerificationToken(any());
-        verify(passwordEncoder, never()).encode(any());
+        verify(emailOutboxService, never()).queueVerificationEmail(any(), any(), any());
+        verify(verificationTokenService, never()).issue(any(), any());
     }
 
     @Test
@@ -120,22 +160,39 @@ class AuthServiceTest {
                 .lastName("User")
                 .build();
 
-        when(userRepository.existsByUsername("newUser")).thenReturn(false);
-        when(userRepository.existsByEmail("existing@email.com")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("hashed-password");
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(uniqueViolation("PUBLIC.UK_USERS_EMAIL"));
 
         // ---------- WHEN ----------
         assertThrows(com.cristian.backend.exception.EmailAlreadyRegisteredException.class, () -> authService.register(request));
 
         // ---------- THEN ----------
-        verify(userRepository, never()).save(any());
-        verify(emailService, never()).sendVerificationEmail(any(), any(), any());
-        verify(jwtService, never()).generateVerificationToken(any());
-        verify(passwordEncoder, never()).encode(any());
+        verify(emailOutboxService, never()).queueVerificationEmail(any(), any(), any());
+        verify(verificationTokenService, never()).issue(any(), any());
     }
 
     @Test
-    @DisplayName("Register succeeds even if sending verification email fails")
-    void registerErrorSendingVerificationEmail() {
+    @DisplayName("Register propagates integrity violations that are not a taken username or email")
+    void registerOtherIntegrityViolation() {
+        // ---------- GIVEN ----------
+        RegisterRequest request = RegisterRequest.builder()
+                .username("newUser")
+                .email("new@email.com")
+                .password("password123")
+                .build();
+
+        when(passwordEncoder.encode("password123")).thenReturn("hashed-password");
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("value too long for column first_name"));
+
+        // ---------- WHEN & THEN ----------
+        assertThrows(DataIntegrityViolationException.class, () -> authService.register(request));
+    }
+
+    @Test
+    @DisplayName("Register fails (and rolls back) if the verification email cannot be queued")
+    void registerErrorQueueingVerificationEmail() {
         // ---------- GIVEN ----------
         RegisterRequest request = RegisterRequest.builder()
                 .username("userEmailError")
@@ -145,33 +202,27 @@ class AuthServiceTest {
                 .lastName("EmailError")
                 .build();
 
-        when(userRepository.existsByUsername("userEmailError")).thenReturn(false);
-        when(userRepository.existsByEmail("userEmailError@email.com")).thenReturn(false);
-        when(jwtService.generateVerificationToken("userEmailError@email.com")).thenReturn("token-error");
+        when(verificationTokenService.issue(2L, "userEmailError@email.com")).thenReturn("token-error");
         when(passwordEncoder.encode("password123")).thenReturn("hashed-password");
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
             User user = invocation.getArgument(0);
             user.setId(2L);
             return user;
         });
-        doThrow(new RuntimeException("Mail error")).when(emailService).sendVerificationEmail(
+        doThrow(new RuntimeException("Outbox error")).when(emailOutboxService).queueVerificationEmail(
                 eq("userEmailError@email.com"),
                 eq("userEmailError"),
                 eq("token-error")
         );
 
-        // ---------- WHEN ----------
-        AuthResponse response = authService.register(request);
-
-        // ---------- THEN ----------
-        assertTrue(response.getSuccess());
-        assertEquals("User registered successfully. Please verify your email.", response.getMessage());
-        verify(emailService, times(1)).sendVerificationEmail(
+        // ---------- WHEN & THEN ----------
+        assertThrows(RuntimeException.class, () -> authService.register(request));
+        verify(emailOutboxService, times(1)).queueVerificationEmail(
                 "userEmailError@email.com",
                 "userEmailError",
                 "token-error"
         );
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -191,11 +242,13 @@ class AuthServiceTest {
                 .build();
         when(userRepository.findByEmail(identifier)).thenReturn(java.util.Optional.of(user));
         when(passwordEncoder.matches(password, "hashed-password")).thenReturn(true);
+        when(refreshTokenService.issue(10L)).thenReturn("refresh-token");
         // WHEN
         AuthResponse response = authService.login(new com.cristian.backend.dto.LoginRequest(identifier, password));
         // THEN
         assertTrue(response.getSuccess());
         assertEquals("Login successful", response.getMessage());
+        assertEquals("refresh-token", response.getRefreshToken());
         assertEquals(user.getId(), response.getId());
         assertEquals(user.getUsername(), response.getUsername());
         assertEquals(user.getEmail(), response.getEmail());
@@ -263,19 +316,19 @@ class AuthServiceTest {
                 .firstName("User")
                 .lastName("Test")
                 .enabled(false)
-                .verificationToken(token)
                 .build();
-        when(jwtService.validateVerificationToken(token)).thenReturn(true);
-        when(jwtService.extractSubject(token)).thenReturn(email);
-        when(userRepository.findByVerificationToken(token)).thenReturn(java.util.Optional.of(user));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(jwtService.verifyToken(token)).thenReturn(verificationToken(email));
+        when(verificationTokenService.find(token)).thenReturn(java.util.Optional.of(storedToken(20L, email)));
+        when(userRepository.enable(20L)).thenReturn(1);
+        when(userRepository.findProfileById(20L)).thenReturn(java.util.Optional.of(UserProfile.from(user)));
         // WHEN
         AuthResponse response = authService.verifyEmail(token);
         // THEN
         assertTrue(response.getSuccess());
         assertEquals("Email verified successfully", response.getMessage());
         assertEquals(user.getId(), response.getId());
-        verify(emailService, times(1)).sendWelcomeEmail(email, user.getUsername());
+        verify(verificationTokenService).deleteForUser(20L);
+        verify(emailOutboxService, times(1)).queueWelcomeEmail(email, user.getUsername());
     }
 
     @Test
@@ -283,7 +336,7 @@ class AuthServiceTest {
     void verifyEmailTokenInvalid() {
         // GIVEN
         String token = "invalid-token";
-        when(jwtService.validateVerificationToken(token)).thenReturn(false);
+        when(jwtService.verifyToken(token)).thenThrow(new RuntimeException("invalid signature"));
         // WHEN
         assertThrows(com.cristian.backend.exception.VerificationTokenInvalidException.class, () -> authService.verifyEmail(token));
         // THEN
@@ -294,8 +347,7 @@ class AuthServiceTest {
     void verifyEmailErrorExtractingEmail() {
         // GIVEN
         String token = "token-error";
-        when(jwtService.validateVerificationToken(token)).thenReturn(true);
-        when(jwtService.extractSubject(token)).thenThrow(new RuntimeException("extract error"));
+        when(jwtService.verifyToken(token)).thenReturn(verificationToken(null));
         // WHEN
         assertThrows(com.cristian.backend.exception.ErrorExtractingEmailException.class, () -> authService.verifyEmail(token));
         // THEN
@@ -307,9 +359,8 @@ class AuthServiceTest {
         // GIVEN
         String token = "notfound-token";
         String email = "user@test.com";
-        when(jwtService.validateVerificationToken(token)).thenReturn(true);
-        when(jwtService.extractSubject(token)).thenReturn(email);
-        when(userRepository.findByVerificationToken(token)).thenReturn(java.util.Optional.empty());
+        when(jwtService.verifyToken(token)).thenReturn(verificationToken(email));
+        when(verificationTokenService.find(token)).thenReturn(java.util.Optional.empty());
         // WHEN
         assertThrows(com.cristian.backend.exception.InvalidVerificationTokenException.class, () -> authService.verifyEmail(token));
         // THEN
@@ -321,19 +372,12 @@ class AuthServiceTest {
         // GIVEN
         String token = "token-mismatch";
         String email = "user@test.com";
-        User user = User.builder()
-                .id(21L)
-                .username("user")
-                .email("other@test.com")
-                .verificationToken(token)
-                .enabled(false)
-                .build();
-        when(jwtService.validateVerificationToken(token)).thenReturn(true);
-        when(jwtService.extractSubject(token)).thenReturn(email);
-        when(userRepository.findByVerificationToken(token)).thenReturn(java.util.Optional.of(user));
+        when(jwtService.verifyToken(token)).thenReturn(verificationToken(email));
+        when(verificationTokenService.find(token)).thenReturn(java.util.Optional.of(storedToken(21L, "other@test.com")));
         // WHEN
         assertThrows(com.cristian.backend.exception.TokenEmailDoesNotMatchException.class, () -> authService.verifyEmail(token));
         // THEN
+        verify(userRepository, never()).enable(any());
     }
 
     @Test
@@ -342,21 +386,16 @@ class AuthServiceTest {
         // GIVEN
         String token = "already-verified-token";
         String email = "user@test.com";
-        User user = User.builder()
-                .id(22L)
-                .username("user")
-                .email(email)
-                .verificationToken(token)
-                .enabled(true)
-                .build();
-        when(jwtService.validateVerificationToken(token)).thenReturn(true);
-        when(jwtService.extractSubject(token)).thenReturn(email);
-        when(userRepository.findByVerificationToken(token)).thenReturn(java.util.Optional.of(user));
+        when(jwtService.verifyToken(token)).thenReturn(verificationToken(email));
+        when(verificationTokenService.find(token)).thenReturn(java.util.Optional.of(storedToken(22L, email)));
+        when(userRepository.enable(22L)).thenReturn(0);
         // WHEN
         AuthResponse response = authService.verifyEmail(token);
         // THEN
         assertTrue(response.getSuccess());
         assertEquals("Email already verified", response.getMessage());
+        verify(userRepository, never()).findProfileById(any());
+        verify(emailOutboxService, never()).queueWelcomeEmail(anyString(), anyString());
     }
 
     // ============ TESTS FOR getUserByEmail ============
@@ -376,7 +415,7 @@ class AuthServiceTest {
                 .enabled(true)
                 .build();
 
-        when(userRepository.findByEmail(email)).thenReturn(java.util.Optional.of(user));
+        when(userRepository.findProfileByEmail(email)).thenReturn(java.util.Optional.of(UserProfile.from(user)));
 
         // WHEN
         AuthResponse response = authService.getUserByEmail(email);
@@ -396,7 +435,7 @@ class AuthServiceTest {
     void getUserByEmail_NotFound() {
         // GIVEN
         String email = "nonexistent@test.com";
-        when(userRepository.findByEmail(email)).thenReturn(java.util.Optional.empty());
+        when(userRepository.findProfileByEmail(email)).thenReturn(java.util.Optional.empty());
 
         // WHEN
         AuthResponse response = authService.getUserByEmail(email);
@@ -406,6 +445,23 @@ class AuthServiceTest {
         assertEquals("User not found", response.getMessage());
     }
 
+    @Test
+    @DisplayName("Should serve repeated profile reads from the cache")
+    void getUserByEmail_Cached() {
+        // GIVEN
+        String email = "cached@test.com";
+        User user = User.builder().id(5L).username("cached").email(email).enabled(true).build();
+        when(userRepository.findProfileByEmail(email)).thenReturn(java.util.Optional.of(UserProfile.from(user)));
+
+        // WHEN
+        authService.getUserByEmail(email);
+        AuthResponse response = authService.getUserByEmail(email);
+
+        // THEN
+        assertEquals("cached", response.getUsername());
+        verify(userRepository, times(1)).findProfileByEmail(email);
+    }
+
     @Test
     @DisplayName("Should return admin role when user is admin")
     void getUserByEmail_AdminRole() {
@@ -421,7 +477,7 @@ class AuthServiceTest {
                 .enabled(true)
                 .build();
 
-        when(userRepository.findByEmail(email)).thenReturn(java.util.Optional.of(user));
+        when(userRepository.findProfileByEmail(email)).thenReturn(java.util.Optional.of(UserProfile.from(user)));
 
         // WHEN
         AuthResponse response = authService.getUserByEmail(email);
@@ -446,9 +502,9 @@ class AuthServiceTest {
                 .build();
 
         when(userRepository.findByEmail(email)).thenReturn(java.util.Optional.of(user));
-        when(jwtService.generateVerificationToken(email)).thenReturn("new-verification-token");
-        when(userRepository.save(any(User.class))).thenReturn(user);
-        doNothing().when(emailService).sendVerificationEmail(anyString(), anyString(), anyString());
+        when(verificationTokenService.lastIssuedAt(1L)).thenReturn(java.util.Optional.empty());
+        when(verificationTokenService.issue(1L, email)).thenReturn("new-verification-token");
+        doNothing().when(emailOutboxService).queueVerificationEmail(anyString(), anyString(), anyString());
 
         // WHEN
         AuthResponse response = authService.resendVerificationEmail(email);
@@ -456,9 +512,8 @@ class AuthServiceTest {
         // THEN
         assertTrue(response.getSuccess());
         assertEquals("Verification email sent successfully", response.getMessage());
-        verify(jwtService, times(1)).generateVerificationToken(email);
-        verify(userRepository, times(1)).save(any(User.class));
-        verify(emailService, times(1)).sendVerificationEmail(eq(email), eq("unverifieduser"), eq("new-verification-token"));
+        verify(verificationTokenService, times(1)).issue(1L, email);
+        verify(emailOutboxService, times(1)).queueVerificationEmail(eq(email), eq("unverifieduser"), eq("new-verification-token"));
     }
 
     @Test
@@ -474,7 +529,7 @@ class AuthServiceTest {
         // THEN
         assertFalse(response.getSuccess());
         assertEquals("User not found", response.getMessage());
-        verify(emailService, never()).sendVerificationEmail(anyString(), anyString(), anyString());
+        verify(emailOutboxService, never()).queueVerificationEmail(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -497,12 +552,34 @@ class AuthServiceTest {
         // THEN
         assertFalse(response.getSuccess());
         assertEquals("Email is already verified", response.getMessage());
-        verify(emailService, never()).sendVerificationEmail(anyString(), anyString(), anyString());
+        verify(emailOutboxService, never()).queueVerificationEmail(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should propagate outbox failures during resend so the new token is rolled back")
+    void resendVerificationEmail_OutboxFails() {
+        // GIVEN
+        String email = "unverified@test.com";
+        User user = User.builder()
+                .id(1L)
+                .username("unverifieduser")
+                .email(email)
+                .enabled(false)
+                .build();
+
+        when(userRepository.findByEmail(email)).thenReturn(java.util.Optional.of(user));
+        when(verificationTokenService.lastIssuedAt(1L)).thenReturn(java.util.Optional.empty());
+        when(verificationTokenService.issue(1L, email)).thenReturn("new-token");
+        doThrow(new RuntimeException("Outbox error"))
+                .when(emailOutboxService).queueVerificationEmail(anyString(), anyString(), anyString());
+
+        // WHEN & THEN
+        assertThrows(RuntimeException.class, () -> authService.resendVerificationEmail(email));
     }
 
     @Test
-    @DisplayName("Should return error when email service fails during resend")
-    void resendVerificationEmail_EmailServiceFails() {
+    @DisplayName("Should reuse the pending token and queued email for repeated resends")
+    void resendVerificationEmail_Coalesced() {
         // GIVEN
         String email = "unverified@test.com";
         User user = User.builder()
@@ -513,16 +590,135 @@ class AuthServiceTest {
                 .build();
 
         when(userRepository.findByEmail(email)).thenReturn(java.util.Optional.of(user));
-        when(jwtService.generateVerificationToken(email)).thenReturn("new-token");
-        when(userRepository.save(any(User.class))).thenReturn(user);
-        doThrow(new RuntimeException("Email service error"))
-                .when(emailService).sendVerificationEmail(anyString(), anyString(), anyString());
+        when(verificationTokenService.lastIssuedAt(1L)).thenReturn(java.util.Optional.empty());
+        when(verificationTokenService.issue(1L, email)).thenReturn("new-verification-token");
+
+        // WHEN
+        AuthResponse first = authService.resendVerificationEmail(email);
+        AuthResponse second = authService.resendVerificationEmail("Unverified@Test.com");
+        AuthResponse third = authService.resendVerificationEmail(email);
+
+        // THEN
+        assertTrue(first.getSuccess());
+        assertTrue(second.getSuccess());
+        assertEquals("Verification email sent successfully", third.getMessage());
+        verify(userRepository, times(1)).findByEmail(anyString());
+        verify(verificationTokenService, times(1)).issue(1L, email);
+        verify(emailOutboxService, times(1)).queueVerificationEmail(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should not resend when the stored verification token was issued within the cooldown")
+    void resendVerificationEmail_RecentPersistedToken() {
+        // GIVEN
+        String email = "unverified@test.com";
+        User user = User.builder()
+                .id(1L)
+                .username("unverifieduser")
+                .email(email)
+                .enabled(false)
+                .build();
+
+        when(userRepository.findByEmail(email)).thenReturn(java.util.Optional.of(user));
+        when(verificationTokenService.lastIssuedAt(1L)).thenReturn(java.util.Optional.of(Instant.now().minusSeconds(10)));
 
         // WHEN
         AuthResponse response = authService.resendVerificationEmail(email);
 
         // THEN
-        assertFalse(response.getSuccess());
-        assertEquals("Error sending verification email", response.getMessage());
+        assertTrue(response.getSuccess());
+        verify(verificationTokenService, never()).issue(any(), any());
+        verify(emailOutboxService, never()).queueVerificationEmail(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should revoke the token until it expires on logout")
+    void logout_RevokesToken() {
+        // GIVEN
+        Instant now = Instant.now();
+        VerifiedToken token = new VerifiedToken("jti-2", "user@test.com", "USER", null, now, now.plusSeconds(3600));
+        when(jwtService.verifyToken("session-token")).thenReturn(token);
+
+        // WHEN
+        authService.logout("session-token", "refresh-token");
+
+        // THEN
+        verify(tokenRevocationService).revoke("jti-2", token.expiration());
+        verify(refreshTokenService).revoke("refresh-token");
+    }
+
+    @Test
+    @DisplayName("Should ignore invalid tokens on logout")
+    void logout_InvalidToken() {
+        // GIVEN
+        when(jwtService.verifyToken("bad-token")).thenThrow(new io.jsonwebtoken.MalformedJwtException("bad"));
+
+        // WHEN
+        authService.logout("bad-token", null);
+
+        // THEN
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    @Test
+    @DisplayName("Should issue a new JWT on refresh without checking the password")
+    void refresh_Successful() {
+        // GIVEN
+        User user = User.builder()
+                .id(10L)
+                .username("user")
+                .email("user@test.com")
+                .password("hashed-password")
+                .enabled(true)
+                .role(User.Role.ADMIN)
+                .build();
+        when(refreshTokenService.rotate("refresh-1")).thenReturn(new RefreshTokenService.Rotation(10L, "refresh-2"));
+        when(userRepository.findProfileById(10L)).thenReturn(java.util.Optional.of(UserProfile.from(user)));
+        when(jwtService.generateToken("user@test.com", "ADMIN")).thenReturn("new-jwt");
+
+        // WHEN
+        AuthResponse response = authService.refresh("refresh-1");
+
+        // THEN
+        assertTrue(response.getSuccess());
+        assertEquals("new-jwt", response.getToken());
+        assertEquals("refresh-2", response.getRefreshToken());
+        assertEquals("ADMIN", response.getRole());
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    @DisplayName("Should reject refresh for a disabled user")
+    void refresh_UserDisabled() {
+        // GIVEN
+        User user = User.builder().id(10L).email("user@test.com").enabled(false).build();
+        when(refreshTokenService.rotate("refresh-1")).thenReturn(new RefreshTokenService.Rotation(10L, "refresh-2"));
+        when(userRepository.findProfileById(10L)).thenReturn(java.util.Optional.of(UserProfile.from(user)));
+
+        // WHEN & THEN
+        assertThrows(com.cristian.backend.exception.InvalidRefreshTokenException.class,
+                () -> authService.refresh("refresh-1"));
+        verify(jwtService, never()).generateToken(anyString(), anyString());
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation",
+                        new java.sql.SQLException("duplicate key"), constraintName));
+    }
+
+    private static VerificationToken storedToken(Long userId, String email) {
+        return VerificationToken.builder()
+                .tokenHash("hash")
+                .userId(userId)
+                .email(email)
+                .createdAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+
+    private static VerifiedToken verificationToken(String email) {
+        Instant now = Instant.now();
+        return new VerifiedToken("jti-1", email, null, VerifiedToken.VERIFICATION_TYPE, now, now.plusSeconds(3600));
     }
 }
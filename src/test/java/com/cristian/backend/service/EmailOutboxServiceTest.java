@@ -0,0 +1,59 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.repository.OutboxEmailRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmailOutboxService Test Suite")
+class EmailOutboxServiceTest {
+
+    @Mock
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmailOutboxService emailOutboxService;
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxService = new EmailOutboxService(outboxEmailRepository, emailService,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(emailOutboxService, "retentionMs", 86400000L);
+        ReflectionTestUtils.setField(emailOutboxService, "cleanupBatchSize", 100);
+    }
+
+    @Test
+    @DisplayName("Should delete finished emails past the retention in batches until a batch is not full")
+    void testDeleteFinishedInBatches() {
+        // GIVEN
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        when(outboxEmailRepository.deleteFinished(cutoff.capture(), eq(100))).thenReturn(100, 100, 7);
+
+        // WHEN
+        emailOutboxService.deleteFinished();
+
+        // THEN
+        verify(outboxEmailRepository, times(3)).deleteFinished(cutoff.getValue(), 100);
+        long retainedMs = Instant.now().toEpochMilli() - cutoff.getValue().toEpochMilli();
+        assertTrue(retainedMs >= 86400000L && retainedMs < 86400000L + 60000, "cutoff is one retention ago");
+    }
+}
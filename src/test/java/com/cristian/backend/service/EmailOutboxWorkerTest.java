@@ -0,0 +1,332 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.model.OutboxEmail;
+import com.cristian.backend.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmailOutboxWorker Test Suite")
+class EmailOutboxWorkerTest {
+
+    @Mock
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SmtpRateLimiter rateLimiter;
+    private EmailOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new SmtpRateLimiter("test", 1000, 100, Duration.ZERO, Duration.ofMinutes(1), meterRegistry);
+        worker = new EmailOutboxWorker(outboxEmailRepository, emailService, rateLimiter,
+                new TransactionTemplate(transactionManager), meterRegistry, 2, 10, 5, 3, 300000, 1000, 60000, 1000, 30000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should claim due emails, send them over one connection and mark them as sent")
+    void testDrainSendsClaimedEmails() throws Exception {
+        // GIVEN
+        OutboxEmail first = email(1L, 0);
+        OutboxEmail second = email(2L, 0);
+        when(outboxEmailRepository.findDue(any(), any())).thenReturn(List.of(first, second));
+        stubMessages();
+
+        // WHEN
+        worker.drain();
+
+        // THEN
+        verify(emailService).createMessage(eq("user1@test.com"), eq("Subject"), any(RenderedEmail.class));
+        verify(emailService).createMessage(eq("user2@test.com"), eq("Subject"), any(RenderedEmail.class));
+        verify(emailService).send(argThat(messages -> messages.size() == 2));
+        verify(outboxEmailRepository).markSent(eq(1L), any());
+        verify(outboxEmailRepository).markSent(eq(2L), any());
+        assertEquals(1, first.getAttempts());
+        assertTrue(first.getNextAttemptAt().isAfter(Instant.now().plusSeconds(200)), "claim leases the email");
+        assertEquals(2, meterRegistry.get("email.outbox.delivered").tag("result", "sent").counter().count());
+        assertEquals(2, meterRegistry.get("email.outbox.queue.age").tag("priority", "normal").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should send verification emails before welcome emails, in chunks per connection")
+    void testDrainSendsHighPriorityLaneFirst() throws Exception {
+        // GIVEN
+        List<OutboxEmail> batch = new ArrayList<>();
+        for (long id = 1; id <= 7; id++) {
+            batch.add(email(id, 0, OutboxEmail.Priority.HIGH));
+        }
+        batch.add(email(8L, 0, OutboxEmail.Priority.NORMAL));
+        when(outboxEmailRepository.findDue(any(), any())).thenReturn(batch);
+        Map<MimeMessage, String> recipients = new ConcurrentHashMap<>();
+        List<List<String>> sends = Collections.synchronizedList(new ArrayList<>());
+        when(emailService.createMessage(anyString(), anyString(), any(RenderedEmail.class))).thenAnswer(invocation -> {
+            MimeMessage message = mock(MimeMessage.class);
+            recipients.put(message, invocation.getArgument(0));
+            return message;
+        });
+        doAnswer(invocation -> {
+            List<MimeMessage> messages = invocation.getArgument(0);
+            sends.add(messages.stream().map(recipients::get).toList());
+            return null;
+        }).when(emailService).send(anyList());
+
+        // WHEN
+        worker.drain();
+
+        // THEN (5 messages per connection)
+        assertEquals(3, sends.size());
+        assertEquals(List.of("user8@test.com"), sends.get(2), "welcome lane is sent last");
+        assertEquals(7, sends.get(0).size() + sends.get(1).size());
+        assertEquals(7, meterRegistry.get("email.outbox.queue.age").tag("priority", "high").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should release emails without using an attempt when the send rate is used up")
+    void testThrottledEmailsAreReleased() throws Exception {
+        // GIVEN
+        SmtpRateLimiter slow = new SmtpRateLimiter("slow", 0.001, 1, Duration.ZERO, Duration.ofMinutes(1), meterRegistry);
+        EmailOutboxWorker throttledWorker = new EmailOutboxWorker(outboxEmailRepository, emailService, slow,
+                new TransactionTemplate(transactionManager), meterRegistry, 1, 10, 5, 3, 300000, 1000, 60000, 1000, 30000);
+        stubMessages();
+
+        try {
+            // WHEN
+            boolean completed = throttledWorker.deliver(List.of(email(1L, 1), email(2L, 1), email(3L, 1)));
+
+            // THEN
+            assertFalse(completed);
+            verify(emailService).send(argThat(messages -> messages.size() == 1));
+            verify(outboxEmailRepository).markSent(eq(1L), any());
+            verify(outboxEmailRepository).release(eq(List.of(2L, 3L)), any());
+            assertEquals(1, meterRegistry.get("email.ratelimit.throttled")
+                    .tag("provider", "slow").tag("reason", "local").counter().count());
+        } finally {
+            throttledWorker.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should release the lower-priority lanes without sending once the rate is used up")
+    void testThrottledDrainReleasesRemainingLanes() throws Exception {
+        // GIVEN
+        SmtpRateLimiter slow = new SmtpRateLimiter("slow", 0.001, 1, Duration.ZERO, Duration.ofMinutes(1), meterRegistry);
+        EmailOutboxWorker throttledWorker = new EmailOutboxWorker(outboxEmailRepository, emailService, slow,
+                new TransactionTemplate(transactionManager), meterRegistry, 1, 10, 5, 3, 300000, 1000, 60000, 1000, 30000);
+        when(outboxEmailRepository.findDue(any(), any())).thenReturn(List.of(
+                email(1L, 1, OutboxEmail.Priority.HIGH), email(2L, 1, OutboxEmail.Priority.HIGH),
+                email(3L, 1, OutboxEmail.Priority.NORMAL)));
+        stubMessages();
+
+        try {
+            // WHEN
+            throttledWorker.drain();
+
+            // THEN
+            verify(emailService, times(1)).send(anyList());
+            verify(outboxEmailRepository).release(eq(List.of(2L)), any());
+            verify(outboxEmailRepository).release(eq(List.of(3L)), any());
+            verify(emailService, never()).createMessage(eq("user3@test.com"), anyString(), any(RenderedEmail.class));
+            assertEquals(1, meterRegistry.get("email.ratelimit.throttled")
+                    .tag("provider", "slow").tag("reason", "local").counter().count(), "the welcome lane never asked for a permit");
+        } finally {
+            throttledWorker.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should only fail the rejected messages of a batch and back off when the provider throttles")
+    void testPartialFailureAndProviderThrottling() throws Exception {
+        // GIVEN
+        OutboxEmail accepted = email(1L, 1);
+        OutboxEmail rejected = email(2L, 1);
+        List<MimeMessage> created = new ArrayList<>();
+        when(emailService.createMessage(anyString(), anyString(), any(RenderedEmail.class))).thenAnswer(invocation -> {
+            MimeMessage message = mock(MimeMessage.class);
+            created.add(message);
+            return message;
+        });
+        doAnswer(invocation -> {
+            throw new MailSendException(Map.of(created.get(1),
+                    new MessagingException("421 4.7.0 Try again later, closing connection")));
+        }).when(emailService).send(anyList());
+
+        // WHEN
+        worker.deliver(List.of(accepted, rejected));
+
+        // THEN
+        verify(outboxEmailRepository).markSent(eq(1L), any());
+        verify(outboxEmailRepository).reschedule(eq(2L), any(), eq("MessagingException: 421 4.7.0 Try again later, closing connection"));
+        assertEquals(1, meterRegistry.get("email.ratelimit.throttled")
+                .tag("provider", "test").tag("reason", "provider").counter().count());
+        assertEquals(0, rateLimiter.acquire(1), "sending is paused after a throttling reply");
+    }
+
+    @Test
+    @DisplayName("Should stop claiming full batches once the drain time is used up")
+    void testDrainIsBounded() throws Exception {
+        // GIVEN
+        EmailOutboxWorker boundedWorker = new EmailOutboxWorker(outboxEmailRepository, emailService, rateLimiter,
+                new TransactionTemplate(transactionManager), meterRegistry, 2, 2, 5, 3, 300000, 1000, 60000, 1000, 0);
+        when(outboxEmailRepository.findDue(any(), any())).thenAnswer(invocation -> List.of(email(1L, 0), email(2L, 0)));
+        stubMessages();
+
+        try {
+            // WHEN
+            boundedWorker.drain();
+
+            // THEN (a full batch would otherwise be followed by another claim)
+            verify(outboxEmailRepository, times(1)).findDue(any(), any());
+            verify(outboxEmailRepository, times(2)).markSent(any(), any());
+        } finally {
+            boundedWorker.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should poll the outbox on its own thread once started")
+    void testStartPollsOutbox() {
+        // GIVEN
+        EmailOutboxWorker pollingWorker = new EmailOutboxWorker(outboxEmailRepository, emailService, rateLimiter,
+                new TransactionTemplate(transactionManager), meterRegistry, 1, 10, 5, 3, 300000, 1000, 60000, 10, 30000);
+        when(outboxEmailRepository.findDue(any(), any())).thenThrow(new IllegalStateException("database down"))
+                .thenReturn(List.of());
+
+        try {
+            // WHEN
+            pollingWorker.start();
+
+            // THEN (a failed drain doesn't cancel the polling)
+            verify(outboxEmailRepository, timeout(2000).atLeast(2)).findDue(any(), any());
+        } finally {
+            pollingWorker.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no email is due")
+    void testDrainEmptyOutbox() {
+        // GIVEN
+        when(outboxEmailRepository.findDue(any(), any())).thenReturn(List.of());
+
+        // WHEN
+        worker.drain();
+
+        // THEN
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    @DisplayName("Should reschedule a failed delivery with backoff")
+    void testFailedDeliveryIsRescheduled() throws Exception {
+        // GIVEN
+        OutboxEmail email = email(1L, 1);
+        stubMessages();
+        doThrow(new RuntimeException("Error sending email", new IllegalStateException("SMTP down")))
+                .when(emailService).send(anyList());
+
+        // WHEN
+        worker.deliver(List.of(email));
+
+        // THEN
+        ArgumentCaptor<Instant> nextAttempt = ArgumentCaptor.forClass(Instant.class);
+        verify(outboxEmailRepository).reschedule(eq(1L), nextAttempt.capture(), eq("IllegalStateException: SMTP down"));
+        assertTrue(nextAttempt.getValue().isAfter(Instant.now()));
+        verify(outboxEmailRepository, never()).markSent(any(), any());
+        verify(outboxEmailRepository, never()).markDead(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should move an email to the dead-letter state after the last attempt")
+    void testDeadLetterAfterMaxAttempts() throws Exception {
+        // GIVEN
+        OutboxEmail email = email(1L, 3);
+        stubMessages();
+        doThrow(new RuntimeException("Error sending email"))
+                .when(emailService).send(anyList());
+
+        // WHEN
+        worker.deliver(List.of(email));
+
+        // THEN
+        verify(outboxEmailRepository).markDead(1L, "RuntimeException: Error sending email");
+        verify(outboxEmailRepository, never()).reschedule(any(), any(), any());
+        assertEquals(1, meterRegistry.get("email.outbox.delivered").tag("result", "dead").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should grow the backoff exponentially up to the maximum")
+    void testBackoff() {
+        // WHEN & THEN (+-20% jitter)
+        assertBetween(worker.backoff(1), 800, 1200);
+        assertBetween(worker.backoff(3), 3200, 4800);
+        assertBetween(worker.backoff(30), 48000, 72000);
+    }
+
+    private static void assertBetween(Duration duration, long minMillis, long maxMillis) {
+        assertTrue(duration.toMillis() >= minMillis && duration.toMillis() <= maxMillis,
+                duration.toMillis() + " not in [" + minMillis + ", " + maxMillis + "]");
+    }
+
+    private void stubMessages() throws MessagingException {
+        when(emailService.createMessage(anyString(), anyString(), any(RenderedEmail.class)))
+                .thenAnswer(invocation -> mock(MimeMessage.class));
+    }
+
+    private static OutboxEmail email(Long id, int attempts) {
+        return email(id, attempts, OutboxEmail.Priority.NORMAL);
+    }
+
+    private static OutboxEmail email(Long id, int attempts, OutboxEmail.Priority priority) {
+        return OutboxEmail.builder()
+                .id(id)
+                .recipient("user" + id + "@test.com")
+                .subject("Subject")
+                .htmlBody("<p>Hi</p>".getBytes(StandardCharsets.UTF_8))
+                .textBody("Hi".getBytes(StandardCharsets.UTF_8))
+                .priority(priority)
+                .attempts(attempts)
+                .nextAttemptAt(Instant.now())
+                .createdAt(Instant.now())
+                .build();
+    }
+}
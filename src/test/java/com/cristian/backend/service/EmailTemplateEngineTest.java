@@ -0,0 +1,82 @@
+package com.cristian.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EmailTemplateEngine Test Suite")
+class EmailTemplateEngineTest {
+
+    @Test
+    @DisplayName("Should render the bundled templates as HTML and plain text")
+    void testBundledTemplates() {
+        // GIVEN
+        EmailTemplateEngine engine = new EmailTemplateEngine(new DefaultResourceLoader(), "classpath:templates/email/", 0);
+        engine.preload();
+
+        // WHEN
+        RenderedEmail email = engine.render("verification",
+                Map.of("username", "José", "verificationUrl", "http://localhost:8080/api/auth/verify?token=abc"));
+
+        // THEN
+        String html = new String(email.html(), StandardCharsets.UTF_8);
+        String text = new String(email.text(), StandardCharsets.UTF_8);
+        assertTrue(html.contains("Hello <strong>José</strong>"));
+        assertTrue(html.contains("href=\"http://localhost:8080/api/auth/verify?token=abc\""));
+        assertTrue(text.contains("Hello José,"));
+        assertTrue(text.contains("http://localhost:8080/api/auth/verify?token=abc"));
+        assertFalse(text.contains("<"));
+    }
+
+    @Test
+    @DisplayName("Should pick up modified templates without a restart")
+    void testReload(@TempDir Path dir) throws Exception {
+        // GIVEN
+        for (String name : EmailTemplateEngine.TEMPLATES) {
+            Files.writeString(dir.resolve(name + ".html"), "<p>{{username}}</p>");
+            Files.writeString(dir.resolve(name + ".txt"), "{{username}}");
+        }
+        EmailTemplateEngine engine = new EmailTemplateEngine(new DefaultResourceLoader(), dir.toUri().toString(), 1);
+        engine.preload();
+        assertEquals("<p>Ana</p>", new String(engine.render("welcome", Map.of("username", "Ana")).html(), StandardCharsets.UTF_8));
+
+        // WHEN
+        Path html = dir.resolve("welcome.html");
+        Files.writeString(html, "<h1>{{username}}</h1>");
+        Files.setLastModifiedTime(html, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        Thread.sleep(5);
+
+        // THEN
+        assertEquals("<h1>Ana</h1>", new String(engine.render("welcome", Map.of("username", "Ana")).html(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should keep the previous template when the new version is invalid")
+    void testReloadKeepsPreviousOnError(@TempDir Path dir) throws Exception {
+        // GIVEN
+        for (String name : EmailTemplateEngine.TEMPLATES) {
+            Files.writeString(dir.resolve(name + ".html"), "<p>{{username}}</p>");
+            Files.writeString(dir.resolve(name + ".txt"), "{{username}}");
+        }
+        EmailTemplateEngine engine = new EmailTemplateEngine(new DefaultResourceLoader(), dir.toUri().toString(), 1);
+        engine.preload();
+
+        // WHEN
+        Path html = dir.resolve("welcome.html");
+        Files.writeString(html, "<h1>{{username</h1>");
+        Files.setLastModifiedTime(html, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        Thread.sleep(5);
+
+        // THEN
+        assertEquals("<p>Ana</p>", new String(engine.render("welcome", Map.of("username", "Ana")).html(), StandardCharsets.UTF_8));
+    }
+}
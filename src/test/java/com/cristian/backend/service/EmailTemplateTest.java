@@ -0,0 +1,79 @@
+package com.cristian.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EmailTemplate Test Suite")
+class EmailTemplateTest {
+
+    @Test
+    @DisplayName("Should render literals and placeholders in order, reusing repeated values")
+    void testRender() {
+        // GIVEN
+        EmailTemplate template = EmailTemplate.parse("<a href=\"{{url}}\">{{url}}</a> for {{ name }}!", true);
+
+        // WHEN
+        byte[] rendered = template.render(Map.of("url", "https://x.test/verify?token=abc", "name", "Ana"));
+
+        // THEN
+        assertEquals("<a href=\"https://x.test/verify?token=abc\">https://x.test/verify?token=abc</a> for Ana!",
+                new String(rendered, StandardCharsets.UTF_8));
+        assertEquals(Set.of("url", "name"), template.placeholders());
+    }
+
+    @Test
+    @DisplayName("Should HTML-escape values in HTML templates only")
+    void testEscaping() {
+        // GIVEN
+        EmailTemplate html = EmailTemplate.parse("<p>{{name}}</p>", true);
+        EmailTemplate text = EmailTemplate.parse("Hello {{name}}", false);
+        Map<String, String> values = Map.of("name", "<script>alert('x')</script> & \"co\"");
+
+        // WHEN & THEN
+        assertEquals("<p>&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; &amp; &quot;co&quot;</p>",
+                new String(html.render(values), StandardCharsets.UTF_8));
+        assertEquals("Hello <script>alert('x')</script> & \"co\"",
+                new String(text.render(values), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should encode literals and values as UTF-8")
+    void testUtf8() {
+        // GIVEN
+        EmailTemplate template = EmailTemplate.parse("🔐 Hola {{name}}", true);
+
+        // WHEN
+        byte[] rendered = template.render(Map.of("name", "José García"));
+
+        // THEN
+        assertArrayEquals("🔐 Hola José García".getBytes(StandardCharsets.UTF_8), rendered);
+    }
+
+    @Test
+    @DisplayName("Should keep CSS braces as literal text")
+    void testCssBraces() {
+        // GIVEN
+        EmailTemplate template = EmailTemplate.parse("body { color: red; } {{name}}", true);
+
+        // WHEN & THEN
+        assertEquals("body { color: red; } x", new String(template.render(Map.of("name", "x")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should reject missing values and malformed placeholders")
+    void testErrors() {
+        // GIVEN
+        EmailTemplate template = EmailTemplate.parse("Hello {{name}}", false);
+
+        // WHEN & THEN
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.parse("Hello {{name", false));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.parse("Hello {{ }}", false));
+    }
+}
@@ -0,0 +1,151 @@
+package com.cristian.backend.service;
+
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PooledJavaMailSender Test Suite")
+class PooledJavaMailSenderTest {
+
+    private InProcessSmtpServer smtpServer;
+    private PooledJavaMailSender mailSender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtpServer = new InProcessSmtpServer();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mailSender != null) {
+            mailSender.destroy();
+        }
+        smtpServer.close();
+    }
+
+    @Test
+    @DisplayName("Should reuse connections across sends")
+    void testReusesConnection() throws Exception {
+        // GIVEN
+        mailSender = sender(2, 100, Duration.ofMinutes(1));
+
+        // WHEN
+        for (int i = 0; i < 10; i++) {
+            mailSender.send(message("user" + i + "@test.com"));
+        }
+
+        // THEN
+        assertEquals(10, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnectionCount());
+        assertEquals("user3@test.com", smtpServer.getMessages().get(3).recipients().get(0));
+    }
+
+    @Test
+    @DisplayName("Should never open more connections than the pool size under concurrent load")
+    void testBoundedUnderLoad() throws Exception {
+        // GIVEN
+        mailSender = sender(3, 1000, Duration.ofMinutes(1));
+        ExecutorService senders = Executors.newFixedThreadPool(8);
+
+        // WHEN
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String to = "user" + i + "@test.com";
+            results.add(senders.submit(() -> {
+                mailSender.send(message(to));
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        senders.shutdown();
+
+        // THEN
+        assertEquals(200, smtpServer.getMessages().size());
+        assertTrue(smtpServer.getConnectionCount() <= 3, "opened " + smtpServer.getConnectionCount());
+        assertEquals(0, mailSender.getActiveConnections());
+    }
+
+    @Test
+    @DisplayName("Should recycle a connection after the maximum number of messages")
+    void testRecyclesAfterMaxMessages() throws Exception {
+        // GIVEN
+        mailSender = sender(1, 5, Duration.ofMinutes(1));
+
+        // WHEN
+        for (int i = 0; i < 12; i++) {
+            mailSender.send(message("user" + i + "@test.com"));
+        }
+
+        // THEN
+        assertEquals(12, smtpServer.getMessages().size());
+        assertEquals(3, smtpServer.getConnectionCount());
+    }
+
+    @Test
+    @DisplayName("Should replace idle and dropped connections")
+    void testReplacesStaleConnections() throws Exception {
+        // GIVEN
+        mailSender = sender(1, 100, Duration.ofMillis(50));
+        mailSender.send(message("first@test.com"));
+
+        // WHEN idle for longer than max-idle
+        Thread.sleep(100);
+        mailSender.send(message("second@test.com"));
+        // and dropped by the server
+        smtpServer.dropConnections();
+        Thread.sleep(20);
+        mailSender.send(message("third@test.com"));
+
+        // THEN
+        assertEquals(3, smtpServer.getMessages().size());
+        assertEquals(3, smtpServer.getConnectionCount());
+    }
+
+    @Test
+    @DisplayName("Should keep the connection when only a recipient is rejected")
+    void testRejectedRecipient() throws Exception {
+        // GIVEN
+        mailSender = sender(1, 100, Duration.ofMinutes(1));
+
+        // WHEN & THEN
+        assertThrows(MailSendException.class, () -> mailSender.send(message("reject@test.com")));
+        mailSender.send(message("ok@test.com"));
+        assertEquals(1, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnectionCount());
+    }
+
+    private PooledJavaMailSender sender(int maxConnections, int maxMessages, Duration maxIdle) {
+        // validate-after-idle 10 ms so the dropped connection is detected with a NOOP
+        PooledJavaMailSender sender = new PooledJavaMailSender(
+                maxConnections, maxMessages, maxIdle, Duration.ofMillis(10), Duration.ofSeconds(10));
+        sender.setHost(smtpServer.getHost());
+        sender.setPort(smtpServer.getPort());
+        sender.setDefaultEncoding("UTF-8");
+        return sender;
+    }
+
+    private MimeMessage message(String to) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom("hello@demomailtrap.co");
+        helper.setTo(to);
+        helper.setSubject("Verify Your Account");
+        helper.setText("<p>Hello</p>", true);
+        return message;
+    }
+}
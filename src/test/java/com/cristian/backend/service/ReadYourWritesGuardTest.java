@@ -0,0 +1,53 @@
+package com.cristian.backend.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ReadYourWritesGuard Test Suite")
+class ReadYourWritesGuardTest {
+
+    @Test
+    @DisplayName("Should pin reads of a just written user to the primary")
+    void testRecentWritePinsPrimary() {
+        // GIVEN
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(5000);
+        guard.recordWrite(7L, "user@test.com", "user");
+
+        // WHEN & THEN
+        assertTrue(guard.read("user@test.com", ReadYourWritesGuard::isPrimaryPinned));
+        assertTrue(guard.read(7L, ReadYourWritesGuard::isPrimaryPinned));
+        assertFalse(guard.read("other@test.com", ReadYourWritesGuard::isPrimaryPinned));
+        assertFalse(ReadYourWritesGuard.isPrimaryPinned());
+    }
+
+    @Test
+    @DisplayName("Should stop pinning once the window passed")
+    void testWindowExpires() throws InterruptedException {
+        // GIVEN
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(50);
+        guard.recordWrite("user@test.com");
+
+        // WHEN
+        Thread.sleep(100);
+
+        // THEN
+        assertFalse(guard.read("user@test.com", ReadYourWritesGuard::isPrimaryPinned));
+    }
+
+    @Test
+    @DisplayName("Should unpin the thread even when the read fails")
+    void testUnpinOnFailure() {
+        // GIVEN
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(5000);
+
+        // WHEN
+        assertThrows(IllegalStateException.class, () -> guard.readFromPrimary(() -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // THEN
+        assertFalse(ReadYourWritesGuard.isPrimaryPinned());
+    }
+}
@@ -0,0 +1,128 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.exception.InvalidRefreshTokenException;
+import com.cristian.backend.model.RefreshToken;
+import com.cristian.backend.repository.RefreshTokenRepository;
+import com.cristian.backend.security.TokenHashing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Test Suite")
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", 3600000L);
+    }
+
+    @Test
+    @DisplayName("Should store only the hash of an issued token")
+    void testIssueStoresHash() {
+        // WHEN
+        String rawToken = refreshTokenService.issue(1L);
+
+        // THEN
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken saved = captor.getValue();
+        assertNotEquals(rawToken, saved.getTokenHash());
+        assertEquals(TokenHashing.sha256Hex(rawToken), saved.getTokenHash());
+        assertEquals(64, saved.getTokenHash().length());
+        assertEquals(1L, saved.getUserId());
+        assertTrue(saved.getExpiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    @DisplayName("Should rotate a valid token into a new one of the same family")
+    void testRotate() {
+        // GIVEN
+        RefreshToken current = token("raw-1", null);
+        when(refreshTokenRepository.findByTokenHash(TokenHashing.sha256Hex("raw-1"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(5L), any())).thenReturn(1);
+
+        // WHEN
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw-1");
+
+        // THEN
+        assertEquals(1L, rotation.userId());
+        assertNotEquals("raw-1", rotation.refreshToken());
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertEquals("family-1", captor.getValue().getFamilyId());
+    }
+
+    @Test
+    @DisplayName("Should revoke the family when a used token is presented again")
+    void testRotateReuseRevokesFamily() {
+        // GIVEN
+        RefreshToken current = token("raw-1", Instant.now().minusSeconds(10));
+        when(refreshTokenRepository.findByTokenHash(TokenHashing.sha256Hex("raw-1"))).thenReturn(Optional.of(current));
+
+        // WHEN & THEN
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw-1"));
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should revoke the family when a concurrent exchange wins the update")
+    void testRotateConcurrentReuse() {
+        // GIVEN
+        RefreshToken current = token("raw-1", null);
+        when(refreshTokenRepository.findByTokenHash(TokenHashing.sha256Hex("raw-1"))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(5L), any())).thenReturn(0);
+
+        // WHEN & THEN
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw-1"));
+        verify(refreshTokenRepository).revokeFamily("family-1");
+    }
+
+    @Test
+    @DisplayName("Should reject unknown and expired tokens")
+    void testRotateInvalid() {
+        // GIVEN
+        RefreshToken expired = token("raw-2", null);
+        expired.setExpiresAt(Instant.now().minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHash(TokenHashing.sha256Hex("raw-2"))).thenReturn(Optional.of(expired));
+        when(refreshTokenRepository.findByTokenHash(TokenHashing.sha256Hex("unknown"))).thenReturn(Optional.empty());
+
+        // WHEN & THEN
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw-2"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(null));
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+    }
+
+    private static RefreshToken token(String rawToken, Instant usedAt) {
+        return RefreshToken.builder()
+                .id(5L)
+                .tokenHash(TokenHashing.sha256Hex(rawToken))
+                .familyId("family-1")
+                .userId(1L)
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .usedAt(usedAt)
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.cristian.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SmtpRateLimiter Test Suite")
+class SmtpRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("Should hand out the burst at once and then refill at the configured rate")
+    void testBurstAndRefill() throws Exception {
+        // GIVEN
+        SmtpRateLimiter limiter = limiter(2, 5);
+
+        // WHEN & THEN
+        assertEquals(5, limiter.acquire(10));
+        assertEquals(0, limiter.acquire(1));
+
+        clock.addAndGet(Duration.ofMillis(1500).toNanos());
+        assertEquals(3, limiter.acquire(10));
+
+        clock.addAndGet(Duration.ofSeconds(60).toNanos());
+        assertEquals(5, limiter.acquire(10), "tokens never exceed the burst");
+        assertEquals(1, meterRegistry.get("email.ratelimit.throttled")
+                .tag("provider", "gmail").tag("reason", "local").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should stop sending for the backoff after a throttling reply from the provider")
+    void testProviderBackoff() throws Exception {
+        // GIVEN
+        SmtpRateLimiter limiter = limiter(100, 100);
+
+        // WHEN
+        limiter.throttledByProvider();
+
+        // THEN
+        assertEquals(0, limiter.acquire(1));
+        clock.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertEquals(0, limiter.acquire(1));
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals(100, limiter.acquire(100));
+        assertEquals(1, meterRegistry.get("email.ratelimit.throttled")
+                .tag("provider", "gmail").tag("reason", "provider").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should recognise throttling replies and ignore other failures")
+    void testIsThrottling() {
+        // WHEN & THEN
+        assertTrue(SmtpRateLimiter.isThrottling(new MessagingException("421 4.7.0 Try again later")));
+        assertTrue(SmtpRateLimiter.isThrottling(new SendFailedException("Send failed",
+                new SMTPSendFailedException("DATA", 450, "450 4.2.1 receiving mail at a rate", null, null, null, null))));
+        assertTrue(SmtpRateLimiter.isThrottling(new RuntimeException("Error sending email",
+                new MessagingException("454 4.7.0 Too many login attempts"))));
+        assertFalse(SmtpRateLimiter.isThrottling(new SendFailedException("550 5.1.1 User unknown")));
+        assertFalse(SmtpRateLimiter.isThrottling(new IllegalStateException("SMTP down")));
+    }
+
+    @Test
+    @DisplayName("Should name well-known providers and fall back to the host")
+    void testProviderOf() {
+        // WHEN & THEN
+        assertEquals("gmail", SmtpRateLimiter.providerOf("smtp.gmail.com"));
+        assertEquals("mailtrap", SmtpRateLimiter.providerOf("live.smtp.mailtrap.io"));
+        assertEquals("smtp.example.org", SmtpRateLimiter.providerOf("SMTP.example.org"));
+        assertEquals("default", SmtpRateLimiter.providerOf(null));
+    }
+
+    private SmtpRateLimiter limiter(double permitsPerSecond, int burst) {
+        return new SmtpRateLimiter("gmail", permitsPerSecond, burst, Duration.ZERO, Duration.ofMinutes(1),
+                meterRegistry, clock::get);
+    }
+}
@@ -0,0 +1,120 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.model.RevokedToken;
+import com.cristian.backend.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenRevocationService Test Suite")
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(revokedTokenRepository, 1000);
+    }
+
+    @Test
+    @DisplayName("Should report a token as revoked after revoking it")
+    void testRevoke() {
+        // WHEN
+        revocationService.revoke("jti-1", Instant.now().plusSeconds(3600));
+
+        // THEN
+        assertTrue(revocationService.isRevoked("jti-1"));
+        assertFalse(revocationService.isRevoked("jti-2"));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    @DisplayName("Should not store tokens that have already expired")
+    void testRevokeExpiredToken() {
+        // WHEN
+        revocationService.revoke("jti-1", Instant.now().minusSeconds(1));
+
+        // THEN
+        assertFalse(revocationService.isRevoked("jti-1"));
+        verify(revokedTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should pick up tokens revoked on other nodes when syncing")
+    void testSync() {
+        // GIVEN
+        RevokedToken remote = RevokedToken.builder()
+                .jti("remote-jti")
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .revokedAt(Instant.now())
+                .build();
+        when(revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(), any()))
+                .thenReturn(List.of(remote));
+
+        // WHEN
+        revocationService.sync();
+
+        // THEN
+        assertTrue(revocationService.isRevoked("remote-jti"));
+    }
+
+    @Test
+    @DisplayName("Should forget expired entries on compaction")
+    void testCompact() {
+        // GIVEN
+        RevokedToken expiring = RevokedToken.builder()
+                .jti("old-jti")
+                .expiresAt(Instant.now().plusMillis(50))
+                .revokedAt(Instant.now())
+                .build();
+        when(revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(), any()))
+                .thenReturn(List.of(expiring));
+        revocationService.sync();
+        revocationService.revoke("live-jti", Instant.now().plusSeconds(3600));
+        assertTrue(revocationService.isRevoked("old-jti"));
+
+        // WHEN
+        await(expiring.getExpiresAt());
+        revocationService.compact();
+
+        // THEN
+        assertFalse(revocationService.isRevoked("old-jti"));
+        assertTrue(revocationService.isRevoked("live-jti"));
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+
+    @Test
+    @DisplayName("Should never miss a revoked token among many")
+    void testNoFalseNegatives() {
+        // GIVEN
+        for (int i = 0; i < 5000; i++) {
+            revocationService.revoke("jti-" + i, Instant.now().plusSeconds(3600));
+        }
+
+        // THEN
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(revocationService.isRevoked("jti-" + i));
+        }
+        assertFalse(revocationService.isRevoked("not-revoked"));
+    }
+
+    private static void await(Instant instant) {
+        while (Instant.now().isBefore(instant.plusMillis(1))) {
+            Thread.onSpinWait();
+        }
+    }
+}
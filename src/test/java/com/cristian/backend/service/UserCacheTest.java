@@ -0,0 +1,97 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.dto.UserProfile;
+import com.cristian.backend.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UserCache Test Suite")
+class UserCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserCache userCache = new UserCache(100, 60000, meterRegistry);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Should load a profile once and report hits and misses")
+    void testHitAndMissMetrics() {
+        // WHEN
+        userCache.byEmail("user@test.com", this::load);
+        userCache.byEmail("user@test.com", this::load);
+        userCache.byEmail("user@test.com", this::load);
+
+        // THEN
+        assertEquals(1, loads.get());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "users.by-email")
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users.by-email")
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should not cache unknown users")
+    void testMissingUserNotCached() {
+        // WHEN
+        Optional<UserProfile> first = userCache.byEmail("new@test.com", email -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<UserProfile> second = userCache.byEmail("new@test.com", this::load);
+
+        // THEN
+        assertTrue(first.isEmpty());
+        assertTrue(second.isPresent());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict both the email and the id entry")
+    void testInvalidate() {
+        // GIVEN
+        userCache.byEmail("user@test.com", this::load);
+        userCache.byId(1L, id -> load("user@test.com"));
+
+        // WHEN
+        userCache.invalidate(1L, "user@test.com");
+        userCache.byEmail("user@test.com", this::load);
+        userCache.byId(1L, id -> load("user@test.com"));
+
+        // THEN
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict again when the surrounding transaction completes")
+    void testInvalidateAfterCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // GIVEN
+            userCache.invalidate(1L, "user@test.com");
+            // a read that saw the row before the commit
+            userCache.byEmail("user@test.com", this::load);
+
+            // WHEN
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            userCache.byEmail("user@test.com", this::load);
+
+            // THEN
+            assertEquals(2, loads.get());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Optional<UserProfile> load(String email) {
+        loads.incrementAndGet();
+        return Optional.of(new UserProfile(1L, "user", email, "Test", "User", User.Role.USER, true));
+    }
+}
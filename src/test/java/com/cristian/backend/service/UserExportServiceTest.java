@@ -0,0 +1,102 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.dto.UserExportRow;
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.model.User;
+import com.cristian.backend.repository.UserExportRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserExportService Test Suite")
+class UserExportServiceTest {
+
+    @Mock
+    private UserExportRepository userExportRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UserExportService userExportService;
+
+    private final UserFilter filter = new UserFilter(null, null, null);
+
+    @BeforeEach
+    void setUp() {
+        userExportService = new UserExportService(userExportRepository, objectMapper);
+    }
+
+    private void givenTwoUsers() {
+        doAnswer(invocation -> {
+            Consumer<UserExportRow> action = invocation.getArgument(1);
+            action.accept(new UserExportRow(1L, "john@example.com", "john", User.Role.USER, User.AuthProvider.LOCAL, true, 1000L));
+            action.accept(new UserExportRow(2L, "o\"hara,jr@example.com", "ñandú", User.Role.ADMIN, null, false, 2000L));
+            return null;
+        }).when(userExportRepository).forEach(eq(filter), any());
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header and one quoted-when-needed line per user")
+    void testExportCsv() throws Exception {
+        // GIVEN
+        givenTwoUsers();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // WHEN
+        userExportService.export(filter, UserExportService.Format.CSV, out);
+
+        // THEN
+        assertEquals("""
+                id,email,username,role,provider,enabled,created_at
+                1,john@example.com,john,USER,LOCAL,true,1000
+                2,"o""hara,jr@example.com",ñandú,ADMIN,,false,2000
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line")
+    void testExportNdjson() throws Exception {
+        // GIVEN
+        givenTwoUsers();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // WHEN
+        userExportService.export(filter, UserExportService.Format.NDJSON, out);
+
+        // THEN
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("USER", first.get("role").asText());
+        assertEquals(1000L, first.get("createdAt").asLong());
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals("o\"hara,jr@example.com", second.get("email").asText());
+        assertTrue(second.get("provider").isNull());
+        assertFalse(second.get("enabled").asBoolean());
+    }
+
+    @Test
+    @DisplayName("Should quote CSV values with separators, quotes or line breaks")
+    void testCsvQuoting() {
+        assertEquals("plain", UserExportService.csv("plain"));
+        assertEquals("\"a,b\"", UserExportService.csv("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", UserExportService.csv("say \"hi\""));
+        assertEquals("\"two\nlines\"", UserExportService.csv("two\nlines"));
+        assertEquals("", UserExportService.csv(null));
+    }
+}
@@ -1,22 +1,34 @@
 package com.cristian.backend.service;
 
+import com.cristian.backend.config.DatabasePlatform;
+import com.cristian.backend.dto.RoleChangeResult;
+import com.cristian.backend.dto.UserFilter;
+import com.cristian.backend.dto.UserListItem;
+import com.cristian.backend.dto.UserPage;
+import com.cristian.backend.dto.UserProfile;
+import com.cristian.backend.dto.UserSummary;
+import com.cristian.backend.exception.InvalidCursorException;
 import com.cristian.backend.exception.UserNotFoundException;
 import com.cristian.backend.model.User;
 import com.cristian.backend.repository.UserRepository;
 import com.cristian.backend.security.OAuthUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,14 +38,19 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
     private UserService userService;
+    private UserCache userCache;
+    private ReadYourWritesGuard readYourWrites;
 
     private OAuthUser oauthUser;
     private User existingUser;
 
     @BeforeEach
     void setUp() {
+        userCache = new UserCache(1000, 60000, new SimpleMeterRegistry());
+        readYourWrites = new ReadYourWritesGuard(5000);
+        userService = userService(DatabaseDriver.H2);
+
         // Crear mock de OAuth2User
         OAuth2User oauth2User = mock(OAuth2User.class);
         when(oauth2User.getAttribute("email")).thenReturn("john.doe@google.com");
@@ -116,11 +133,13 @@ class UserServiceTest {
     }
 
     @Test
-    @DisplayName("Should generate username with correct format: firstName.lastName{timestamp}")
+    @DisplayName("Should generate username with format firstName.lastName plus the next free number")
     void findOrCreateGoogleUser_NewUser_HasCorrectUsernameFormat() {
         // GIVEN
         when(userRepository.findByEmail("john.doe@google.com"))
                 .thenReturn(Optional.empty());
+        when(userRepository.findMaxUsernameSuffix("john.doe", "john.doe0", "john.doea"))
+                .thenReturn(Optional.of(1L));
 
         when(userRepository.save(any(User.class)))
                 .thenAnswer(invocation -> {
@@ -134,10 +153,7 @@ class UserServiceTest {
 
         // THEN
         assertNotNull(result);
-        // The username should have the format: firstName.lastName{timestamp}
-        assertTrue(result.getUsername().startsWith("john.doe"));
-        // The timestamp can be 1 to 3 digits (0-999)
-        assertTrue(result.getUsername().matches("john\\.doe\\d+"));
+        assertEquals("john.doe2", result.getUsername());
     }
 
     @Test
@@ -366,10 +382,7 @@ class UserServiceTest {
 
         // THEN
         assertNotNull(result);
-        // The username should be: .user{timestamp}
-        assertTrue(result.getUsername().startsWith(".user"));
-        // The timestamp can be 1 to 3 digits (0-999)
-        assertTrue(result.getUsername().matches("\\.user\\d+"));
+        assertEquals("user", result.getUsername());
     }
 
     @Test
@@ -397,12 +410,7 @@ class UserServiceTest {
 
         // THEN
         assertNotNull(result);
-        // The username must contain a dot and numbers (timestamp)
-        String username = result.getUsername();
-        assertTrue(username.contains("."), "Username must contain a dot");
-        // Extract all numbers from the username
-        String numericPart = username.replaceAll("\\D", "");
-        assertFalse(numericPart.isEmpty(), "Username must contain timestamp numbers");
+        assertEquals("first", result.getUsername());
     }
 
     @Test
@@ -439,8 +447,152 @@ class UserServiceTest {
         assertEquals(longEmail, result.getEmail());
     }
 
+    @Test
+    @DisplayName("Should return the row inserted by a concurrent callback when the email insert conflicts")
+    void findOrCreateGoogleUser_ConcurrentInsert_ReturnsExistingUser() {
+        // GIVEN
+        when(userRepository.findByEmail("john.doe@google.com"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(existingUser));
+        when(userRepository.save(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_users_email"));
+
+        // WHEN
+        User result = userService.findOrCreateGoogleUser(oauthUser);
+
+        // THEN
+        assertSame(existingUser, result);
+        verify(userRepository, times(2)).findByEmail("john.doe@google.com");
+    }
+
+    @Test
+    @DisplayName("Should retry with a fresh username when another node took the allocated one")
+    void findOrCreateGoogleUser_UsernameTaken_RetriesWithNextSuffix() {
+        // GIVEN
+        when(userRepository.findByEmail("john.doe@google.com")).thenReturn(Optional.empty());
+        when(userRepository.findMaxUsernameSuffix("john.doe", "john.doe0", "john.doea"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(0L));
+        when(userRepository.save(any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_users_username"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // WHEN
+        User result = userService.findOrCreateGoogleUser(oauthUser);
+
+        // THEN
+        assertEquals("john.doe1", result.getUsername());
+        verify(userRepository, times(2)).save(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Should rethrow the username conflict after the last attempt")
+    void findOrCreateGoogleUser_UsernameConflictPersists_Rethrows() {
+        // GIVEN
+        when(userRepository.findByEmail("john.doe@google.com")).thenReturn(Optional.empty());
+        DataIntegrityViolationException conflict = new DataIntegrityViolationException("uk_users_username");
+        when(userRepository.save(any(User.class))).thenThrow(conflict);
+
+        // WHEN & THEN
+        assertSame(conflict, assertThrows(DataIntegrityViolationException.class,
+                () -> userService.findOrCreateGoogleUser(oauthUser)));
+        verify(userRepository, times(UserService.MAX_INSERT_ATTEMPTS)).save(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Should rethrow other conflicts without retrying when no user with the email exists afterwards")
+    void findOrCreateGoogleUser_OtherConflict_Rethrows() {
+        // GIVEN
+        when(userRepository.findByEmail("john.doe@google.com")).thenReturn(Optional.empty());
+        DataIntegrityViolationException conflict = new DataIntegrityViolationException("users_role_check");
+        when(userRepository.save(any(User.class))).thenThrow(conflict);
+
+        // WHEN & THEN
+        assertSame(conflict, assertThrows(DataIntegrityViolationException.class,
+                () -> userService.findOrCreateGoogleUser(oauthUser)));
+        verify(userRepository, times(1)).save(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Should create the user when Google omits the family name")
+    void findOrCreateGoogleUser_MissingLastName() {
+        // GIVEN
+        OAuth2User noLast = mock(OAuth2User.class);
+        when(noLast.getAttribute("email")).thenReturn("prince@google.com");
+        when(noLast.getAttribute("given_name")).thenReturn("Prince");
+        when(noLast.getAttribute("family_name")).thenReturn(null);
+        OAuthUser noLastNameUser = new OAuthUser(noLast);
+
+        when(userRepository.findByEmail("prince@google.com")).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // WHEN
+        User result = userService.findOrCreateGoogleUser(noLastNameUser);
+
+        // THEN
+        assertEquals("prince", result.getUsername());
+        assertNull(result.getLastName());
+    }
+
+    @Test
+    @DisplayName("Should insert a new user with a single upsert on PostgreSQL")
+    void findOrCreateGoogleUser_PostgreSQL_UsesUpsert() {
+        // GIVEN
+        userService = userService(DatabaseDriver.POSTGRESQL);
+        when(userRepository.findByEmail("john.doe@google.com")).thenReturn(Optional.empty());
+        when(userRepository.upsertGoogleUser(eq("john.doe"), eq("john.doe@google.com"),
+                eq("John"), eq("Doe"), anyLong()))
+                .thenReturn(existingUser);
+
+        // WHEN
+        User result = userService.findOrCreateGoogleUser(oauthUser);
+
+        // THEN
+        assertSame(existingUser, result);
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should return a known user on PostgreSQL with one lookup, without allocating or writing")
+    void findOrCreateGoogleUser_PostgreSQL_ReturningUser() {
+        // GIVEN
+        userService = userService(DatabaseDriver.POSTGRESQL);
+        when(userRepository.findByEmail("john.doe@google.com")).thenReturn(Optional.of(existingUser));
+
+        // WHEN
+        User result = userService.findOrCreateGoogleUser(oauthUser);
+
+        // THEN
+        assertSame(existingUser, result);
+        verify(userRepository, times(1)).findByEmail("john.doe@google.com");
+        verifyNoMoreInteractions(userRepository);
+        assertFalse(readYourWrites.read("john.doe@google.com", ReadYourWritesGuard::isPrimaryPinned),
+                "nothing was written, so later reads are not pinned to the primary");
+    }
+
     // ============ TESTS FOR changeUserRole ============
 
+    @Test
+    @DisplayName("Should evict the cached profile when the role changes")
+    void changeUserRole_InvalidatesCache() {
+        // GIVEN
+        User user = User.builder().id(1L).username("john.doe").email("john.doe@example.com")
+                .role(User.Role.USER).enabled(true).build();
+        userCache.byEmail(user.getEmail(), email -> Optional.of(UserProfile.from(user)));
+        userCache.byId(user.getId(), id -> Optional.of(UserProfile.from(user)));
+        when(userRepository.findSummaryByEmail("john.doe@example.com")).thenReturn(Optional.of(summary(user)));
+
+        // WHEN
+        userService.changeUserRole("john.doe@example.com", User.Role.ADMIN);
+        user.setRole(User.Role.ADMIN); // the row as the next read sees it
+
+        // THEN
+        Optional<UserProfile> byEmail = userCache.byEmail(user.getEmail(), email -> Optional.of(UserProfile.from(user)));
+        Optional<UserProfile> byId = userCache.byId(user.getId(), id -> Optional.of(UserProfile.from(user)));
+        assertEquals(User.Role.ADMIN, byEmail.orElseThrow().role());
+        assertEquals(User.Role.ADMIN, byId.orElseThrow().role());
+    }
+
     @Test
     @DisplayName("Should change user role successfully when user exists")
     void changeUserRole_Success() {
@@ -455,20 +607,18 @@ class UserServiceTest {
                 .enabled(true)
                 .build();
 
-        when(userRepository.findByEmail("john.doe@example.com"))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSummaryByEmail("john.doe@example.com"))
+                .thenReturn(Optional.of(summary(user)));
 
-        when(userRepository.save(any(User.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // WHEN
-        User result = userService.changeUserRole("john.doe@example.com", User.Role.ADMIN);
+        UserSummary result = userService.changeUserRole("john.doe@example.com", User.Role.ADMIN);
 
         // THEN
         assertNotNull(result);
-        assertEquals(User.Role.ADMIN, result.getRole());
-        verify(userRepository, times(1)).findByEmail("john.doe@example.com");
-        verify(userRepository, times(1)).save(user);
+        assertEquals(User.Role.ADMIN, result.role());
+        verify(userRepository, times(1)).findSummaryByEmail("john.doe@example.com");
+        verify(userRepository, times(1)).updateRole(eq(user.getId()), any(User.Role.class));
     }
 
     @Test
@@ -485,32 +635,30 @@ class UserServiceTest {
                 .enabled(true)
                 .build();
 
-        when(userRepository.findByEmail("admin@example.com"))
-                .thenReturn(Optional.of(adminUser));
+        when(userRepository.findSummaryByEmail("admin@example.com"))
+                .thenReturn(Optional.of(summary(adminUser)));
 
-        when(userRepository.save(any(User.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // WHEN
-        User result = userService.changeUserRole("admin@example.com", User.Role.USER);
+        UserSummary result = userService.changeUserRole("admin@example.com", User.Role.USER);
 
         // THEN
         assertNotNull(result);
-        assertEquals(User.Role.USER, result.getRole());
+        assertEquals(User.Role.USER, result.role());
     }
 
     @Test
     @DisplayName("Should throw UserNotFoundException when user email does not exist")
     void changeUserRole_UserNotFound_ThrowsException() {
         // GIVEN
-        when(userRepository.findByEmail("nonexistent@example.com"))
+        when(userRepository.findSummaryByEmail("nonexistent@example.com"))
                 .thenReturn(Optional.empty());
 
         // WHEN & THEN
         assertThrows(UserNotFoundException.class,
                 () -> userService.changeUserRole("nonexistent@example.com", User.Role.ADMIN));
-        verify(userRepository, times(1)).findByEmail("nonexistent@example.com");
-        verify(userRepository, never()).save(any());
+        verify(userRepository, times(1)).findSummaryByEmail("nonexistent@example.com");
+        verify(userRepository, never()).updateRole(any(), any());
     }
 
     @Test
@@ -524,17 +672,17 @@ class UserServiceTest {
                 .role(User.Role.USER)
                 .build();
 
-        when(userRepository.findByEmail("save.error@example.com"))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSummaryByEmail("save.error@example.com"))
+                .thenReturn(Optional.of(summary(user)));
 
-        when(userRepository.save(any(User.class)))
+        when(userRepository.updateRole(anyLong(), any(User.Role.class)))
                 .thenThrow(new RuntimeException("Database error"));
 
         // WHEN & THEN
         assertThrows(RuntimeException.class,
                 () -> userService.changeUserRole("save.error@example.com", User.Role.ADMIN));
-        verify(userRepository, times(1)).findByEmail("save.error@example.com");
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).findSummaryByEmail("save.error@example.com");
+        verify(userRepository, times(1)).updateRole(anyLong(), any(User.Role.class));
     }
 
     @Test
@@ -548,19 +696,17 @@ class UserServiceTest {
                 .role(User.Role.USER)
                 .build();
 
-        when(userRepository.findByEmail("same.role@example.com"))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSummaryByEmail("same.role@example.com"))
+                .thenReturn(Optional.of(summary(user)));
 
-        when(userRepository.save(any(User.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // WHEN
-        User result = userService.changeUserRole("same.role@example.com", User.Role.USER);
+        UserSummary result = userService.changeUserRole("same.role@example.com", User.Role.USER);
 
         // THEN
         assertNotNull(result);
-        assertEquals(User.Role.USER, result.getRole());
-        verify(userRepository, times(1)).save(user);
+        assertEquals(User.Role.USER, result.role());
+        verify(userRepository, times(1)).updateRole(eq(user.getId()), any(User.Role.class));
     }
 
     // ============ TESTS FOR changeUserRoleById ============
@@ -579,21 +725,19 @@ class UserServiceTest {
                 .enabled(true)
                 .build();
 
-        when(userRepository.findById(1L))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSummaryById(1L))
+                .thenReturn(Optional.of(summary(user)));
 
-        when(userRepository.save(any(User.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // WHEN
-        User result = userService.changeUserRoleById(1L, User.Role.ADMIN);
+        UserSummary result = userService.changeUserRoleById(1L, User.Role.ADMIN);
 
         // THEN
         assertNotNull(result);
-        assertEquals(User.Role.ADMIN, result.getRole());
-        assertEquals(1L, result.getId());
-        verify(userRepository, times(1)).findById(1L);
-        verify(userRepository, times(1)).save(user);
+        assertEquals(User.Role.ADMIN, result.role());
+        assertEquals(1L, result.id());
+        verify(userRepository, times(1)).findSummaryById(1L);
+        verify(userRepository, times(1)).updateRole(eq(user.getId()), any(User.Role.class));
     }
 
     @Test
@@ -607,32 +751,30 @@ class UserServiceTest {
                 .role(User.Role.ADMIN)
                 .build();
 
-        when(userRepository.findById(2L))
-                .thenReturn(Optional.of(adminUser));
+        when(userRepository.findSummaryById(2L))
+                .thenReturn(Optional.of(summary(adminUser)));
 
-        when(userRepository.save(any(User.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // WHEN
-        User result = userService.changeUserRoleById(2L, User.Role.USER);
+        UserSummary result = userService.changeUserRoleById(2L, User.Role.USER);
 
         // THEN
         assertNotNull(result);
-        assertEquals(User.Role.USER, result.getRole());
+        assertEquals(User.Role.USER, result.role());
     }
 
     @Test
     @DisplayName("Should throw UserNotFoundException when user ID does not exist")
     void changeUserRoleById_UserNotFound_ThrowsException() {
         // GIVEN
-        when(userRepository.findById(999L))
+        when(userRepository.findSummaryById(999L))
                 .thenReturn(Optional.empty());
 
         // WHEN & THEN
         assertThrows(UserNotFoundException.class,
                 () -> userService.changeUserRoleById(999L, User.Role.ADMIN));
-        verify(userRepository, times(1)).findById(999L);
-        verify(userRepository, never()).save(any());
+        verify(userRepository, times(1)).findSummaryById(999L);
+        verify(userRepository, never()).updateRole(any(), any());
     }
 
     @Test
@@ -646,17 +788,17 @@ class UserServiceTest {
                 .role(User.Role.USER)
                 .build();
 
-        when(userRepository.findById(3L))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSummaryById(3L))
+                .thenReturn(Optional.of(summary(user)));
 
-        when(userRepository.save(any(User.class)))
+        when(userRepository.updateRole(anyLong(), any(User.Role.class)))
                 .thenThrow(new RuntimeException("Database error"));
 
         // WHEN & THEN
         assertThrows(RuntimeException.class,
                 () -> userService.changeUserRoleById(3L, User.Role.ADMIN));
-        verify(userRepository, times(1)).findById(3L);
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).findSummaryById(3L);
+        verify(userRepository, times(1)).updateRole(anyLong(), any(User.Role.class));
     }
 
     @Test
@@ -670,26 +812,24 @@ class UserServiceTest {
                 .role(User.Role.ADMIN)
                 .build();
 
-        when(userRepository.findById(4L))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSummaryById(4L))
+                .thenReturn(Optional.of(summary(user)));
 
-        when(userRepository.save(any(User.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // WHEN
-        User result = userService.changeUserRoleById(4L, User.Role.ADMIN);
+        UserSummary result = userService.changeUserRoleById(4L, User.Role.ADMIN);
 
         // THEN
         assertNotNull(result);
-        assertEquals(User.Role.ADMIN, result.getRole());
-        verify(userRepository, times(1)).save(user);
+        assertEquals(User.Role.ADMIN, result.role());
+        verify(userRepository, times(1)).updateRole(eq(user.getId()), any(User.Role.class));
     }
 
     @Test
     @DisplayName("Should throw exception when finding user by null ID")
     void changeUserRoleById_NullId_ThrowsException() {
         // GIVEN
-        when(userRepository.findById(null))
+        when(userRepository.findSummaryById(null))
                 .thenThrow(new IllegalArgumentException("ID cannot be null"));
 
         // WHEN & THEN
@@ -712,25 +852,19 @@ class UserServiceTest {
                 .provider(User.AuthProvider.LOCAL)
                 .build();
 
-        when(userRepository.findByEmail("preserve@example.com"))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSummaryByEmail("preserve@example.com"))
+                .thenReturn(Optional.of(summary(user)));
 
-        when(userRepository.save(any(User.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // WHEN
-        User result = userService.changeUserRole("preserve@example.com", User.Role.ADMIN);
+        UserSummary result = userService.changeUserRole("preserve@example.com", User.Role.ADMIN);
 
         // THEN
         assertNotNull(result);
-        assertEquals(User.Role.ADMIN, result.getRole());
-        assertEquals(5L, result.getId());
-        assertEquals("preserve.test", result.getUsername());
-        assertEquals("preserve@example.com", result.getEmail());
-        assertEquals("Preserve", result.getFirstName());
-        assertEquals("Test", result.getLastName());
-        assertTrue(result.getEnabled());
-        assertEquals(User.AuthProvider.LOCAL, result.getProvider());
+        assertEquals(User.Role.ADMIN, result.role());
+        assertEquals(5L, result.id());
+        assertEquals("preserve.test", result.username());
+        assertEquals("preserve@example.com", result.email());
     }
 
     @Test
@@ -748,25 +882,132 @@ class UserServiceTest {
                 .provider(User.AuthProvider.GOOGLE)
                 .build();
 
-        when(userRepository.findById(6L))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSummaryById(6L))
+                .thenReturn(Optional.of(summary(user)));
 
-        when(userRepository.save(any(User.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // WHEN
-        User result = userService.changeUserRoleById(6L, User.Role.USER);
+        UserSummary result = userService.changeUserRoleById(6L, User.Role.USER);
 
         // THEN
         assertNotNull(result);
-        assertEquals(User.Role.USER, result.getRole());
-        assertEquals(6L, result.getId());
-        assertEquals("preserve.id.test", result.getUsername());
-        assertEquals("preserve.id@example.com", result.getEmail());
-        assertEquals("PreserveId", result.getFirstName());
-        assertEquals("Test", result.getLastName());
-        assertTrue(result.getEnabled());
-        assertEquals(User.AuthProvider.GOOGLE, result.getProvider());
+        assertEquals(User.Role.USER, result.role());
+        assertEquals(6L, result.id());
+        assertEquals("preserve.id.test", result.username());
+        assertEquals("preserve.id@example.com", result.email());
+    }
+
+    // ============ TESTS FOR changeUserRoles ============
+
+    @Test
+    @DisplayName("Should update in chunks and report every requested user once, in order")
+    void changeUserRoles_ChunksAndReportsResults() {
+        // GIVEN
+        ReflectionTestUtils.setField(userService, "batchChunkSize", 2);
+        UserSummary first = new UserSummary(1L, "one", "one@example.com", User.Role.USER);
+        UserSummary second = new UserSummary(2L, "two", "two@example.com", User.Role.ADMIN);
+        UserSummary third = new UserSummary(3L, "three", "three@example.com", User.Role.USER);
+        when(userRepository.lockSummariesByIdIn(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(userRepository.lockSummariesByIdIn(List.of(99L))).thenReturn(List.of());
+        when(userRepository.lockSummariesByEmailIn(List.of("three@example.com", "one@example.com")))
+                .thenReturn(List.of(third, first));
+
+        // WHEN
+        List<RoleChangeResult> results = userService.changeUserRoles(
+                List.of(1L, 2L, 1L, 99L), List.of("three@example.com", "one@example.com"), User.Role.ADMIN);
+
+        // THEN
+        assertEquals(List.of(
+                new RoleChangeResult(1L, "one@example.com", RoleChangeResult.Status.UPDATED),
+                new RoleChangeResult(2L, "two@example.com", RoleChangeResult.Status.UNCHANGED),
+                new RoleChangeResult(99L, null, RoleChangeResult.Status.NOT_FOUND),
+                new RoleChangeResult(3L, "three@example.com", RoleChangeResult.Status.UPDATED)
+        ), results);
+        // user 1 was requested by id and by email but is updated and reported once; user 2 already was ADMIN
+        verify(userRepository).updateRoles(List.of(1L, 3L), User.Role.ADMIN);
+        verify(userRepository, times(1)).updateRoles(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should evict every changed user from the cache")
+    void changeUserRoles_InvalidatesCache() {
+        // GIVEN
+        User user = User.builder().id(1L).username("one").email("one@example.com").role(User.Role.USER).build();
+        userCache.byEmail(user.getEmail(), email -> Optional.of(UserProfile.from(user)));
+        userCache.byId(user.getId(), id -> Optional.of(UserProfile.from(user)));
+        when(userRepository.lockSummariesByIdIn(List.of(1L))).thenReturn(List.of(summary(user)));
+
+        // WHEN
+        userService.changeUserRoles(List.of(1L), null, User.Role.ADMIN);
+        user.setRole(User.Role.ADMIN); // the row as the next read sees it
+
+        // THEN
+        assertEquals(User.Role.ADMIN, userCache.byEmail(user.getEmail(), email -> Optional.of(UserProfile.from(user)))
+                .orElseThrow().role());
+        assertEquals(User.Role.ADMIN, userCache.byId(user.getId(), id -> Optional.of(UserProfile.from(user)))
+                .orElseThrow().role());
     }
 
+    // ============ TESTS FOR listUsers ============
+
+    @Test
+    @DisplayName("Should return a cursor to the row after the last one of a full page")
+    void listUsers_FullPage_ReturnsCursor() {
+        // GIVEN
+        UserFilter filter = new UserFilter(User.Role.USER, null, null);
+        when(userRepository.findPage(filter, null, null, 3))
+                .thenReturn(List.of(item(9L, 900L), item(8L, 800L), item(7L, 800L)));
+        when(userRepository.findPage(filter, 800L, 8L, 3))
+                .thenReturn(List.of(item(7L, 800L)));
+
+        // WHEN
+        UserPage first = userService.listUsers(filter, null, 2, false);
+        UserPage second = userService.listUsers(filter, first.nextCursor(), 2, false);
+
+        // THEN
+        assertEquals(List.of(9L, 8L), first.users().stream().map(UserListItem::id).toList());
+        assertNotNull(first.nextCursor());
+        assertEquals(List.of(7L), second.users().stream().map(UserListItem::id).toList());
+        assertNull(second.nextCursor());
+        verify(userRepository, never()).countMatching(any());
+    }
+
+    @Test
+    @DisplayName("Should cap the page size and count only when asked")
+    void listUsers_CapsLimitAndCounts() {
+        // GIVEN
+        UserFilter filter = new UserFilter(null, null, null);
+        when(userRepository.findPage(filter, null, null, 201)).thenReturn(List.of());
+        when(userRepository.countMatching(filter)).thenReturn(0L);
+
+        // WHEN
+        UserPage page = userService.listUsers(filter, "", 10_000, true);
+
+        // THEN
+        assertTrue(page.users().isEmpty());
+        assertEquals(0L, page.total());
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor that was not issued by the listing")
+    void listUsers_InvalidCursor() {
+        UserFilter filter = new UserFilter(null, null, null);
+        assertThrows(InvalidCursorException.class, () -> userService.listUsers(filter, "not-a-cursor", 10, false));
+        assertThrows(InvalidCursorException.class, () -> userService.listUsers(filter, "%%%", 10, false));
+        verify(userRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    private UserService userService(DatabaseDriver database) {
+        return new UserService(userRepository, new UsernameAllocator(userRepository, 60000), userCache,
+                readYourWrites, new DatabasePlatform(database));
+    }
+
+    private static UserListItem item(long id, long createdAt) {
+        return new UserListItem(id, "user" + id, "user" + id + "@example.com", null, null,
+                User.Role.USER, User.AuthProvider.LOCAL, true, createdAt);
+    }
+
+    private static UserSummary summary(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getEmail(), user.getRole());
+    }
 }
@@ -0,0 +1,148 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.exception.UsernameUnavailableException;
+import com.cristian.backend.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("UsernameAllocator Test Suite")
+class UsernameAllocatorTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    @DisplayName("Should normalize names to lower case ASCII joined by a dot")
+    void testBaseNormalization() {
+        assertEquals("jose.garcia", UsernameAllocator.base("José", "García", "jg@google.com"));
+        assertEquals("maryann.oneil", UsernameAllocator.base("Mary Ann", "O'Neil", null));
+        assertEquals("prince", UsernameAllocator.base("Prince", null, "p@google.com"));
+        assertEquals("doe", UsernameAllocator.base(null, "Doe", "d@google.com"));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the email local part, then to a fixed name")
+    void testBaseFallbacks() {
+        assertEquals("jdoe99", UsernameAllocator.base(null, "", "j.doe_99@google.com"));
+        assertEquals("user", UsernameAllocator.base("李", null, "@google.com"));
+        assertEquals("user", UsernameAllocator.base(null, null, null));
+    }
+
+    @Test
+    @DisplayName("Should truncate long names")
+    void testBaseTruncated() {
+        String base = UsernameAllocator.base("a".repeat(40), "b", null);
+        assertEquals(UsernameAllocator.MAX_BASE_LENGTH, base.length());
+    }
+
+    @Test
+    @DisplayName("Should pick the suffix after the highest one taken with a single query")
+    void testNextSuffix() {
+        // GIVEN
+        givenMaxSuffix(3L);
+        UsernameAllocator allocator = new UsernameAllocator(userRepository, 60000);
+
+        // WHEN & THEN
+        assertEquals("john.doe4", allocator.allocate("John", "Doe", "john@google.com"));
+        verify(userRepository, times(1)).findMaxUsernameSuffix("john.doe", "john.doe0", "john.doea");
+    }
+
+    @Test
+    @DisplayName("Should use the bare name when it is free, and suffix 1 when only it is taken")
+    void testBareName() {
+        // GIVEN
+        UsernameAllocator allocator = new UsernameAllocator(userRepository, 60000);
+
+        // WHEN & THEN
+        givenMaxSuffix(null);
+        assertEquals("prince", allocator.allocate("Prince", null, null));
+        givenMaxSuffix(0L);
+        assertEquals("doe1", allocator.allocate(null, "Doe", null));
+    }
+
+    @Test
+    @DisplayName("Should fail with a clear error once every attempt is reserved")
+    void testAttemptsCapped() {
+        // GIVEN
+        givenMaxSuffix(null);
+        UsernameAllocator allocator = new UsernameAllocator(userRepository, 60000);
+        for (int i = 0; i < UsernameAllocator.MAX_ATTEMPTS; i++) {
+            allocator.allocate("John", "Doe", null);
+        }
+
+        // WHEN & THEN
+        UsernameUnavailableException exception = assertThrows(UsernameUnavailableException.class,
+                () -> allocator.allocate("John", "Doe", null));
+        assertTrue(exception.getMessage().contains("john.doe"));
+    }
+
+    @Test
+    @DisplayName("Should not hand out a reserved name until it is released")
+    void testReservation() {
+        // GIVEN
+        givenMaxSuffix(null);
+        UsernameAllocator allocator = new UsernameAllocator(userRepository, 60000);
+
+        // WHEN
+        String first = allocator.allocate("John", "Doe", null);
+        String second = allocator.allocate("John", "Doe", null);
+        allocator.release(first);
+        String third = allocator.allocate("John", "Doe", null);
+
+        // THEN
+        assertEquals("john.doe", first);
+        assertEquals("john.doe1", second);
+        assertEquals("john.doe", third);
+    }
+
+    @Test
+    @DisplayName("Should give distinct names to concurrent allocations of the same name")
+    void testConcurrentAllocations() throws Exception {
+        // GIVEN
+        givenMaxSuffix(0L);
+        UsernameAllocator allocator = new UsernameAllocator(userRepository, 60000);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<String>> allocations = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            allocations.add(() -> {
+                start.await();
+                return allocator.allocate("John", "Doe", null);
+            });
+        }
+
+        // WHEN
+        List<Future<String>> futures = new ArrayList<>();
+        for (Callable<String> allocation : allocations) {
+            futures.add(pool.submit(allocation));
+        }
+        start.countDown();
+        HashSet<String> usernames = new HashSet<>();
+        for (Future<String> future : futures) {
+            usernames.add(future.get());
+        }
+        pool.shutdown();
+
+        // THEN
+        assertEquals(50, usernames.size());
+        assertFalse(usernames.contains("john.doe"));
+    }
+
+    private void givenMaxSuffix(Long max) {
+        when(userRepository.findMaxUsernameSuffix(anyString(), anyString(), anyString()))
+                .thenReturn(Optional.ofNullable(max));
+    }
+}
@@ -0,0 +1,150 @@
+package com.cristian.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("VerificationResendCoalescer Test Suite")
+class VerificationResendCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should run only one resend when the same address is requested concurrently")
+    void testConcurrentRequestsAreCoalesced() throws Exception {
+        // GIVEN
+        VerificationResendCoalescer coalescer = new VerificationResendCoalescer(60000, 4, meterRegistry);
+        AtomicInteger resends = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> requests = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            requests.add(() -> {
+                start.await();
+                return coalescer.resendIfCold("user@test.com", null, resends::incrementAndGet);
+            });
+        }
+
+        // WHEN
+        var futures = requests.stream().map(pool::submit).toList();
+        start.countDown();
+        int ran = 0;
+        for (var future : futures) {
+            ran += future.get() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        // THEN
+        assertEquals(1, resends.get());
+        assertEquals(1, ran);
+        assertTrue(coalescer.isCoolingDown("USER@test.com"));
+        assertFalse(coalescer.isCoolingDown("other@test.com"));
+        // 31 coalesced requests + the isCoolingDown hit
+        assertEquals(32, meterRegistry.get("email.resend").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should forget the resend when the transaction rolls back")
+    void testRollbackForgetsResend() {
+        // GIVEN
+        VerificationResendCoalescer coalescer = new VerificationResendCoalescer(60000, 4, meterRegistry);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            coalescer.resendIfCold("user@test.com", null, () -> { });
+            assertTrue(coalescer.isCoolingDown("user@test.com"));
+
+            // WHEN
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // THEN
+        assertFalse(coalescer.isCoolingDown("user@test.com"));
+    }
+
+    @Test
+    @DisplayName("Should honour a recently persisted token and allow a resend after the cooldown")
+    void testCooldownWindow() throws Exception {
+        // GIVEN
+        VerificationResendCoalescer coalescer = new VerificationResendCoalescer(50, 4, meterRegistry);
+        AtomicInteger resends = new AtomicInteger();
+
+        // WHEN & THEN
+        assertFalse(coalescer.resendIfCold("user@test.com", Instant.now(), resends::incrementAndGet));
+        assertTrue(coalescer.resendIfCold("old@test.com", Instant.now().minusSeconds(3600), resends::incrementAndGet));
+        assertEquals(1, resends.get());
+
+        Thread.sleep(60);
+        assertTrue(coalescer.resendIfCold("user@test.com", null, resends::incrementAndGet));
+        coalescer.forget("user@test.com");
+        Thread.sleep(60);
+        coalescer.evictExpired();
+        assertEquals(0, coalescer.size());
+    }
+
+    @Test
+    @DisplayName("Should not hold the stripe while a resend runs")
+    void testResendRunsOutsideTheLock() throws Exception {
+        // GIVEN (one stripe, so both addresses share it)
+        VerificationResendCoalescer coalescer = new VerificationResendCoalescer(60000, 1, meterRegistry);
+        CountDownLatch resendStarted = new CountDownLatch(1);
+        CountDownLatch releaseResend = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+
+        try {
+            pool.submit(() -> coalescer.resendIfCold("slow@test.com", null, () -> {
+                resendStarted.countDown();
+                try {
+                    releaseResend.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(resendStarted.await(5, TimeUnit.SECONDS));
+
+            // WHEN
+            boolean other = coalescer.resendIfCold("other@test.com", null, () -> { });
+            boolean same = coalescer.resendIfCold("slow@test.com", null, () -> fail("already being sent"));
+
+            // THEN
+            assertTrue(other);
+            assertFalse(same);
+        } finally {
+            releaseResend.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should forget the resend when it fails")
+    void testFailedResendIsForgotten() {
+        // GIVEN
+        VerificationResendCoalescer coalescer = new VerificationResendCoalescer(60000, 4, meterRegistry);
+
+        // WHEN
+        assertThrows(IllegalStateException.class, () -> coalescer.resendIfCold("user@test.com", null, () -> {
+            throw new IllegalStateException("mail template missing");
+        }));
+
+        // THEN
+        assertFalse(coalescer.isCoolingDown("user@test.com"));
+        assertEquals(0, coalescer.size());
+    }
+}
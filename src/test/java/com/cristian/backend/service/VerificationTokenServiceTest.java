@@ -0,0 +1,109 @@
+package com.cristian.backend.service;
+
+import com.cristian.backend.model.VerificationToken;
+import com.cristian.backend.repository.VerificationTokenRepository;
+import com.cristian.backend.security.JwtService;
+import com.cristian.backend.security.TokenHashing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("VerificationTokenService Test Suite")
+class VerificationTokenServiceTest {
+
+    @Mock
+    private VerificationTokenRepository verificationTokenRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private VerificationTokenService verificationTokenService;
+
+    @BeforeEach
+    void setUp() {
+        verificationTokenService = new VerificationTokenService(verificationTokenRepository, jwtService,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(verificationTokenService, "verificationExpiration", 86400000L);
+        ReflectionTestUtils.setField(verificationTokenService, "cleanupBatchSize", 100);
+    }
+
+    @Test
+    @DisplayName("Should replace previous tokens and store only the SHA-256 of the new one")
+    void testIssue() {
+        // GIVEN
+        when(jwtService.generateVerificationToken("user@test.com")).thenReturn("verification-jwt");
+
+        // WHEN
+        String token = verificationTokenService.issue(7L, "user@test.com");
+
+        // THEN
+        assertEquals("verification-jwt", token);
+        verify(verificationTokenRepository).deleteByUserId(7L);
+        ArgumentCaptor<VerificationToken> captor = ArgumentCaptor.forClass(VerificationToken.class);
+        verify(verificationTokenRepository).save(captor.capture());
+        VerificationToken saved = captor.getValue();
+        assertEquals(TokenHashing.sha256Hex("verification-jwt"), saved.getTokenHash());
+        assertEquals(64, saved.getTokenHash().length());
+        assertEquals(7L, saved.getUserId());
+        assertEquals("user@test.com", saved.getEmail());
+        assertTrue(saved.getExpiresAt().isAfter(Instant.now().plusSeconds(86000)));
+    }
+
+    @Test
+    @DisplayName("Should look tokens up by their hash")
+    void testFind() {
+        // GIVEN
+        VerificationToken stored = VerificationToken.builder().tokenHash(TokenHashing.sha256Hex("jwt")).build();
+        when(verificationTokenRepository.findById(TokenHashing.sha256Hex("jwt"))).thenReturn(Optional.of(stored));
+
+        // WHEN & THEN
+        assertSame(stored, verificationTokenService.find("jwt").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should only report the issue time of a token that has not expired")
+    void testLastIssuedAt() {
+        // GIVEN
+        Instant createdAt = Instant.now().minusSeconds(30);
+        when(verificationTokenRepository.findFirstByUserIdOrderByCreatedAtDesc(1L)).thenReturn(Optional.of(
+                VerificationToken.builder().createdAt(createdAt).expiresAt(Instant.now().plusSeconds(60)).build()));
+        when(verificationTokenRepository.findFirstByUserIdOrderByCreatedAtDesc(2L)).thenReturn(Optional.of(
+                VerificationToken.builder().createdAt(createdAt).expiresAt(Instant.now().minusSeconds(1)).build()));
+
+        // WHEN & THEN
+        assertEquals(Optional.of(createdAt), verificationTokenService.lastIssuedAt(1L));
+        assertEquals(Optional.empty(), verificationTokenService.lastIssuedAt(2L));
+    }
+
+    @Test
+    @DisplayName("Should sweep expired tokens in batches until a batch is not full")
+    void testDeleteExpiredInBatches() {
+        // GIVEN
+        when(verificationTokenRepository.deleteExpired(any(), eq(100))).thenReturn(100, 100, 42);
+
+        // WHEN
+        verificationTokenService.deleteExpired();
+
+        // THEN
+        verify(verificationTokenRepository, times(3)).deleteExpired(any(), eq(100));
+    }
+}